@@ -0,0 +1,78 @@
+package isil.java_quiz_server.benchmark;
+
+import isil.java_quiz_server.modal.QuizResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory "best attempt" reductions over loaded results, as
+ * {@code getBestScoreForUserOnQuiz} used to do before it became a single-row query:
+ * the original stream with a boxed comparator, a primitive comparator, and a loop.
+ * Also the same reduction when the results of a whole quiz have to be filtered first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BestScoreBenchmark {
+    @Param({"10", "1000"})
+    public int attempts;
+
+    private List<QuizResult> userAttempts;
+    private List<QuizResult> quizResults;
+
+    @Setup
+    public void setUp() {
+        userAttempts = Fixtures.results(attempts, 1, 1);
+        quizResults = Fixtures.results(attempts * 50, 50, 1);
+    }
+
+    @Benchmark
+    public QuizResult streamBoxedComparator() {
+        return userAttempts.stream()
+                .max((r1, r2) -> Integer.compare(r1.getScore(), r2.getScore()))
+                .orElse(null);
+    }
+
+    @Benchmark
+    public QuizResult streamComparingInt() {
+        return userAttempts.stream()
+                .max(Comparator.comparingInt(QuizResult::getScore))
+                .orElse(null);
+    }
+
+    @Benchmark
+    public QuizResult loop() {
+        QuizResult best = null;
+        for (QuizResult result : userAttempts) {
+            if (best == null || result.getScore() > best.getScore()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public QuizResult filteredStream() {
+        Long userId = 7L;
+        return quizResults.stream()
+                .filter(result -> userId.equals(result.getUserId()))
+                .max(Comparator.comparingInt(QuizResult::getScore))
+                .orElse(null);
+    }
+}
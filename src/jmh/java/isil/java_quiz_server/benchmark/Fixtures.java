@@ -0,0 +1,78 @@
+package isil.java_quiz_server.benchmark;
+
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.modal.QuizStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic test data shared by the benchmarks, so runs on different versions
+ * measure the same inputs.
+ */
+final class Fixtures {
+    private static final long SEED = 42;
+
+    private Fixtures() {
+    }
+
+    static Quiz quiz(long id, int questionCount, int optionCount) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setTitle("Benchmark quiz " + id);
+        quiz.setUsername("teacher");
+        List<Question> questions = new ArrayList<>(questionCount);
+        for (int q = 0; q < questionCount; q++) {
+            Question question = new Question();
+            question.setId(id * 10_000 + q);
+            question.setText("Question " + q + ": which of the following statements about Java is true?");
+            List<String> options = new ArrayList<>(optionCount);
+            for (int o = 0; o < optionCount; o++) {
+                options.add("Option " + o + " for question " + q);
+            }
+            question.setOptions(options);
+            question.setCorrectOption(options.get(q % optionCount));
+            questions.add(question);
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    /**
+     * Results spread over {@code users} users and {@code quizzes} quizzes of 20 questions.
+     */
+    static List<QuizResult> results(int count, int users, int quizzes) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<QuizResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long userId = 1 + random.nextInt(users);
+            long quizId = 1 + random.nextInt(quizzes);
+            QuizResult result = new QuizResult(userId, "student" + userId, quizId, "Quiz " + quizId,
+                    random.nextInt(21), 20);
+            result.setId((long) i + 1);
+            results.add(result);
+        }
+        return results;
+    }
+
+    static List<QuizStatistics> statistics(int quizzes) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<QuizStatistics> rows = new ArrayList<>(quizzes);
+        for (int i = 0; i < quizzes; i++) {
+            QuizStatistics row = new QuizStatistics();
+            row.setQuizId((long) i + 1);
+            row.setQuizTitle("Quiz " + (i + 1));
+            long attempts = 1 + random.nextInt(500);
+            row.setAttempts(attempts);
+            row.setPercentageSum(attempts * 62.5);
+            row.setPercentageSquareSum(attempts * 62.5 * 62.5 + attempts * 225);
+            row.setMinScore(random.nextInt(5));
+            row.setMaxScore(15 + random.nextInt(6));
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,80 @@
+package isil.java_quiz_server.benchmark;
+
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.response.QuizSnapshot;
+import isil.java_quiz_server.service.AnswerKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-submission work outside the database: grading the answers against the cached
+ * key and building the {@link QuizResult}, including its percentage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuizResultBenchmark {
+    @Param({"20", "200"})
+    public int questions;
+
+    private AnswerKey answerKey;
+    private String[] answers;
+    private int score;
+
+    @Setup
+    public void setUp() {
+        Quiz quiz = Fixtures.quiz(1, questions, 4);
+        answerKey = AnswerKey.of(QuizSnapshot.of(quiz));
+        List<String> options = quiz.getQuestions().get(0).getOptions();
+        answers = new String[questions];
+        for (int i = 0; i < questions; i++) {
+            // Every other answer right, with fresh strings as a deserialized request has
+            answers[i] = new String(i % 2 == 0 ? quiz.getQuestions().get(i).getCorrectOption() : options.get(3));
+        }
+        score = answerKey.grade(answers);
+    }
+
+    @Benchmark
+    public int grade() {
+        return answerKey.grade(answers);
+    }
+
+    @Benchmark
+    public QuizResult construct() {
+        return new QuizResult(7L, "student7", 1L, "Benchmark quiz 1", score, questions);
+    }
+
+    @Benchmark
+    public QuizResult constructWithSetters() {
+        // The path Jackson takes when a client posts a finished result
+        QuizResult result = new QuizResult();
+        result.setUserId(7L);
+        result.setUsername("student7");
+        result.setQuizId(1L);
+        result.setQuizTitle("Benchmark quiz 1");
+        result.setTotalQuestions(questions);
+        result.setScore(score);
+        return result;
+    }
+
+    @Benchmark
+    public QuizResult gradeAndConstruct() {
+        return new QuizResult(7L, "student7", 1L, "Benchmark quiz 1", answerKey.grade(answers), questions);
+    }
+}
@@ -0,0 +1,62 @@
+package isil.java_quiz_server.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.response.QuizSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of quiz graphs with the mapper settings Spring Boot uses:
+ * the entity as the catalog endpoints write it, and the snapshot the quiz cache
+ * renders once per quiz.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuizSerializationBenchmark {
+    @Param({"20", "500"})
+    public int questions;
+
+    private ObjectMapper objectMapper;
+    private Quiz quiz;
+    private QuizSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        quiz = Fixtures.quiz(1, questions, 4);
+        snapshot = QuizSnapshot.of(quiz);
+    }
+
+    @Benchmark
+    public byte[] entity() throws Exception {
+        return objectMapper.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public byte[] snapshot() throws Exception {
+        return objectMapper.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public byte[] renderSnapshot() throws Exception {
+        // What a quiz cache miss costs besides the query
+        return objectMapper.writeValueAsBytes(QuizSnapshot.of(quiz));
+    }
+}
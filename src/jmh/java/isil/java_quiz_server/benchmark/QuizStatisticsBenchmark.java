@@ -0,0 +1,70 @@
+package isil.java_quiz_server.benchmark;
+
+import isil.java_quiz_server.modal.QuizStatistics;
+import isil.java_quiz_server.repository.QuizStatisticsRepository;
+import isil.java_quiz_server.service.QuizStatisticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning {@code quiz_statistics} rows into the maps {@code GET /quiz-statistics}
+ * returns, i.e. {@link QuizStatisticsService#getQuizStatistics()} without the query.
+ * The repository is a proxy that hands back prebuilt rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuizStatisticsBenchmark {
+    @Param({"10", "1000"})
+    public int quizzes;
+
+    private QuizStatisticsService service;
+
+    @Setup
+    public void setUp() {
+        List<QuizStatistics> rows = Fixtures.statistics(quizzes);
+        QuizStatisticsRepository repository = (QuizStatisticsRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{QuizStatisticsRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && (args == null || args.length == 0)) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        PlatformTransactionManager transactionManager = (PlatformTransactionManager) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{PlatformTransactionManager.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        service = new QuizStatisticsService(repository, null, null, transactionManager);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> rowsToMaps() {
+        return service.getQuizStatistics();
+    }
+}
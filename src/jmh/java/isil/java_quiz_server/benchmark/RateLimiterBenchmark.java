@@ -0,0 +1,87 @@
+package isil.java_quiz_server.benchmark;
+
+import isil.java_quiz_server.config.RateLimitFilter;
+import isil.java_quiz_server.config.TokenBucketRateLimiter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rate limit check: a hot client, a client that is always refused, many
+ * clients, four threads sharing one bucket, and the whole filter in front of a no-op
+ * chain. The budget is under a microsecond per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    private static final int CLIENTS = 4096;
+
+    private TokenBucketRateLimiter unlimited;
+    private TokenBucketRateLimiter exhausted;
+    private String[] clients;
+    private RateLimitFilter filter;
+    private MockHttpServletRequest submission;
+    private MockHttpServletResponse response;
+    private final FilterChain noop = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        unlimited = new TokenBucketRateLimiter(1_000_000_000L, Duration.ofSeconds(1), Duration.ofMinutes(10), 100_000);
+        exhausted = new TokenBucketRateLimiter(1, Duration.ofHours(1), Duration.ofMinutes(10), 100_000);
+        exhausted.tryAcquire("10.0.0.1");
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+        filter = new RateLimitFilter(true, "", "", "", "1000000000/PT1S", "", Duration.ofMinutes(10), 100_000);
+        submission = new MockHttpServletRequest("POST", "/quiz-results");
+        submission.setRemoteAddr("10.0.0.1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public long allowed() {
+        return unlimited.tryAcquire("10.0.0.1");
+    }
+
+    @Benchmark
+    public long rejected() {
+        return exhausted.tryAcquire("10.0.0.1");
+    }
+
+    @Benchmark
+    public long manyClients() {
+        return unlimited.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long contended() {
+        return unlimited.tryAcquire("10.0.0.1");
+    }
+
+    @Benchmark
+    public int filter() throws Exception {
+        filter.doFilter(submission, response, noop);
+        return response.getStatus();
+    }
+}
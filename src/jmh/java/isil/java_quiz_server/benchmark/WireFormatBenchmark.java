@@ -0,0 +1,92 @@
+package isil.java_quiz_server.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.service.WireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding large payloads in each {@link WireFormat}, with the mappers the
+ * server derives from Spring Boot's: the quiz catalog (100 quizzes of 20 questions, as
+ * {@code GET /quizzes} returns it) and 10,000 results (an unpaged result listing).
+ * Payload sizes, plain and gzipped, are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    private static final TypeReference<List<Quiz>> QUIZZES = new TypeReference<>() {
+    };
+    private static final TypeReference<List<QuizResult>> RESULTS = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public WireFormat format;
+
+    @Param({"quizzes", "results"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private TypeReference<? extends List<?>> type;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = format.mapperFrom(Jackson2ObjectMapperBuilder.json().build());
+        if (payload.equals("quizzes")) {
+            List<Quiz> quizzes = new ArrayList<>();
+            for (int i = 1; i <= 100; i++) {
+                quizzes.add(Fixtures.quiz(i, 20, 4));
+            }
+            value = quizzes;
+            type = QUIZZES;
+        } else {
+            value = Fixtures.results(10_000, 1_000, 50);
+            type = RESULTS;
+        }
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n%s %s: %,d bytes, %,d gzipped%n", format, payload, encoded.length, gzippedSize(encoded));
+    }
+
+    private static int gzippedSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public List<?> decode() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+}
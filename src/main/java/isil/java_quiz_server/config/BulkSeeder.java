@@ -0,0 +1,348 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.PasswordHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the database with synthetic students, quizzes and results for capacity testing.
+ * Rows are written with multi-row INSERTs over plain JDBC. Each table is split into
+ * chunks, and {@code quiz.seed.bulk.writers} threads write them, one transaction per chunk.
+ *
+ * <p>Chunks draw from a {@link SplittableRandom} split off the plan's seed in chunk
+ * order, so the same plan produces the same rows however the writers are scheduled.
+ * Generated keys are read back per statement and indexed by row, which lets results
+ * reference students and quizzes without querying for them.
+ */
+@Component
+public class BulkSeeder {
+    private static final Logger logger = LoggerFactory.getLogger(BulkSeeder.class);
+    private static final int OPTIONS_PER_QUESTION = 4;
+    private static final int RESULT_WINDOW_SECONDS = 30 * 24 * 60 * 60;
+
+    private final DataSource dataSource;
+    private final PasswordHasher passwordHasher;
+    private final int writers;
+    private final int rowsPerInsert;
+    private final int rowsPerTransaction;
+
+    @Autowired
+    public BulkSeeder(DataSource dataSource, PasswordHasher passwordHasher,
+                      @Value("${quiz.seed.bulk.writers:4}") int writers,
+                      @Value("${quiz.seed.bulk.rows-per-insert:100}") int rowsPerInsert,
+                      @Value("${quiz.seed.bulk.rows-per-transaction:20000}") int rowsPerTransaction) {
+        // Seeding statements would swamp the slow statement log
+        this.dataSource = StatementTrackingDataSource.untracked(dataSource);
+        this.passwordHasher = passwordHasher;
+        this.writers = Math.max(1, writers);
+        this.rowsPerInsert = Math.max(1, rowsPerInsert);
+        this.rowsPerTransaction = Math.max(this.rowsPerInsert, rowsPerTransaction);
+    }
+
+    public Report seed(Plan plan) {
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(plan.seed);
+        // Every student shares one hash: logins still verify it, seeding does not pay for each
+        String hash = passwordHasher.hash(plan.password);
+        long[] userIds = new long[plan.users];
+        long[] quizIds = new long[plan.quizzes];
+        int questionCount = Math.multiplyExact(plan.quizzes, plan.questionsPerQuiz);
+        long[] questionIds = new long[questionCount];
+        Map<String, Long> rows = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(writers, new WriterThreadFactory());
+        try {
+            write(executor, rows, root, "user", plan.users, "username, password, email, phone, is_teacher", userIds,
+                    (statement, parameter, row, random) -> {
+                        String username = plan.username(row);
+                        statement.setString(parameter, username);
+                        statement.setString(parameter + 1, hash);
+                        statement.setString(parameter + 2, username + "@student.edu");
+                        statement.setString(parameter + 3, "000-000-0000");
+                        statement.setBoolean(parameter + 4, false);
+                    });
+            write(executor, rows, root, "quizzes", plan.quizzes, "title, username", quizIds,
+                    (statement, parameter, row, random) -> {
+                        statement.setString(parameter, plan.quizTitle(row));
+                        statement.setString(parameter + 1, plan.author);
+                    });
+            write(executor, rows, root, "questions", questionCount, "quiz_id, text, correct_option", questionIds,
+                    (statement, parameter, row, random) -> {
+                        int quiz = row / plan.questionsPerQuiz;
+                        int question = row % plan.questionsPerQuiz;
+                        statement.setLong(parameter, quizIds[quiz]);
+                        statement.setString(parameter + 1, plan.quizTitle(quiz) + " question " + question);
+                        statement.setString(parameter + 2, option(question, random.nextInt(OPTIONS_PER_QUESTION)));
+                    });
+            write(executor, rows, root, "question_options", Math.multiplyExact(questionCount, OPTIONS_PER_QUESTION),
+                    "question_id, option_text", null, (statement, parameter, row, random) -> {
+                        int question = row / OPTIONS_PER_QUESTION;
+                        statement.setLong(parameter, questionIds[question]);
+                        statement.setString(parameter + 1,
+                                option(question % plan.questionsPerQuiz, row % OPTIONS_PER_QUESTION));
+                    });
+            write(executor, rows, root, "quiz_results", plan.results, "user_id, username, quiz_id, quiz_title, score,"
+                            + " total_questions, percentage, completed_at, time_taken_seconds", null,
+                    (statement, parameter, row, random) -> {
+                        int user = random.nextInt(plan.users);
+                        int quiz = random.nextInt(plan.quizzes);
+                        int total = plan.questionsPerQuiz;
+                        int score = Math.min(total, DataInitializer.generateRealisticScore(random, total));
+                        statement.setLong(parameter, userIds[user]);
+                        statement.setString(parameter + 1, plan.username(user));
+                        statement.setLong(parameter + 2, quizIds[quiz]);
+                        statement.setString(parameter + 3, plan.quizTitle(quiz));
+                        statement.setInt(parameter + 4, score);
+                        statement.setInt(parameter + 5, total);
+                        statement.setDouble(parameter + 6, score * 100.0 / total);
+                        statement.setTimestamp(parameter + 7,
+                                Timestamp.valueOf(plan.until.minusSeconds(random.nextInt(RESULT_WINDOW_SECONDS))));
+                        statement.setInt(parameter + 8, 60 + random.nextInt(540));
+                    });
+        } finally {
+            executor.shutdownNow();
+        }
+        Report report = new Report(rows, (System.nanoTime() - start) / 1_000_000, userIds, quizIds);
+        logger.info("Bulk seeding wrote {} rows in {} ms ({} rows/s) with {} writers", report.getRows(),
+                report.getMillis(), report.getRowsPerSecond(), writers);
+        return report;
+    }
+
+    private static String option(int question, int option) {
+        return (char) ('A' + option) + Integer.toString(question);
+    }
+
+    /**
+     * Writes {@code count} rows into the table in chunks on the writer threads, storing the
+     * generated id of row {@code i} in {@code keys[i]} when keys are wanted.
+     */
+    private void write(ExecutorService executor, Map<String, Long> rows, SplittableRandom root, String table,
+                       int count, String columns, long[] keys, RowBinder binder) {
+        long start = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += rowsPerTransaction) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(count, from + rowsPerTransaction);
+            SplittableRandom random = root.split();
+            chunks.add(executor.submit(() -> {
+                writeChunk(table, columns, chunkFrom, chunkTo, keys, binder, random);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw new IllegalStateException("Bulk seeding of " + table + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk seeding of " + table + " was interrupted", e);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        rows.put(table, (long) count);
+        logger.info("Seeded {} rows into {} in {} ms ({} rows/s)", count, table, millis, rowsPerSecond(count, millis));
+    }
+
+    private void writeChunk(String table, String columns, int from, int to, long[] keys, RowBinder binder,
+                            SplittableRandom random) throws SQLException {
+        int columnCount = columns.split(",").length;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            PreparedStatement statement = null;
+            int statementRows = 0;
+            try {
+                for (int row = from; row < to; row += statementRows) {
+                    int batch = Math.min(rowsPerInsert, to - row);
+                    if (batch != statementRows) {
+                        // Only the last statement of a chunk is shorter
+                        if (statement != null) {
+                            statement.close();
+                        }
+                        String sql = insert(table, columns, columnCount, batch);
+                        statement = keys != null
+                                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                                : connection.prepareStatement(sql);
+                        statementRows = batch;
+                    }
+                    for (int i = 0; i < batch; i++) {
+                        binder.bind(statement, 1 + i * columnCount, row + i, random);
+                    }
+                    statement.executeUpdate();
+                    if (keys != null) {
+                        readKeys(statement, keys, row, batch);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        }
+    }
+
+    private static void readKeys(PreparedStatement statement, long[] keys, int row, int batch) throws SQLException {
+        int read = 0;
+        try (ResultSet generated = statement.getGeneratedKeys()) {
+            while (generated.next() && read < batch) {
+                keys[row + read++] = generated.getLong(1);
+            }
+        }
+        if (read != batch) {
+            throw new SQLException("Expected " + batch + " generated keys but the driver returned " + read);
+        }
+    }
+
+    private static String insert(String table, String columns, int columnCount, int rows) {
+        StringBuilder row = new StringBuilder("(");
+        for (int c = 0; c < columnCount; c++) {
+            row.append(c == 0 ? "?" : ", ?");
+        }
+        row.append(')');
+        StringBuilder sql = new StringBuilder(32 + columns.length() + rows * (row.length() + 2));
+        sql.append("insert into ").append(table).append(" (").append(columns).append(") values ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    private static long rowsPerSecond(long rows, long millis) {
+        return millis > 0 ? rows * 1000 / millis : rows;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        /**
+         * Binds the parameters of one row, starting at {@code parameter}.
+         */
+        void bind(PreparedStatement statement, int parameter, int row, SplittableRandom random) throws SQLException;
+    }
+
+    private static final class WriterThreadFactory implements ThreadFactory {
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "bulk-seed-" + next.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * What to generate. Students are named {@code usernamePrefix + index} and quizzes
+     * {@code quizTitlePrefix + index}; results are spread over the 30 days before
+     * {@code until}, so fixing it makes runs identical.
+     */
+    public static final class Plan {
+        private final String usernamePrefix;
+        private final String quizTitlePrefix;
+        private final String author;
+        private final String password;
+        private final int users;
+        private final int quizzes;
+        private final int questionsPerQuiz;
+        private final int results;
+        private final long seed;
+        private final LocalDateTime until;
+
+        public Plan(String usernamePrefix, String quizTitlePrefix, String author, String password, int users,
+                    int quizzes, int questionsPerQuiz, int results, long seed, LocalDateTime until) {
+            if (users < 1 || quizzes < 1 || questionsPerQuiz < 1 || results < 0) {
+                throw new IllegalArgumentException("A bulk seed needs at least one user, quiz and question");
+            }
+            this.usernamePrefix = usernamePrefix;
+            this.quizTitlePrefix = quizTitlePrefix;
+            this.author = author;
+            this.password = password;
+            this.users = users;
+            this.quizzes = quizzes;
+            this.questionsPerQuiz = questionsPerQuiz;
+            this.results = results;
+            this.seed = seed;
+            this.until = until;
+        }
+
+        public String username(int index) {
+            return usernamePrefix + index;
+        }
+
+        public String quizTitle(int index) {
+            return quizTitlePrefix + index;
+        }
+    }
+
+    public static final class Report {
+        private final Map<String, Long> tableRows;
+        private final long millis;
+        private final long[] userIds;
+        private final long[] quizIds;
+
+        private Report(Map<String, Long> tableRows, long millis, long[] userIds, long[] quizIds) {
+            this.tableRows = Collections.unmodifiableMap(tableRows);
+            this.millis = millis;
+            this.userIds = userIds;
+            this.quizIds = quizIds;
+        }
+
+        public Map<String, Long> getTableRows() {
+            return tableRows;
+        }
+
+        public long getRows() {
+            return tableRows.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getRowsPerSecond() {
+            return rowsPerSecond(getRows(), millis);
+        }
+
+        /**
+         * Id of the student with the given index.
+         */
+        public long getUserId(int index) {
+            return userIds[index];
+        }
+
+        public long getQuizId(int index) {
+            return quizIds[index];
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package isil.java_quiz_server.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many requests of each kind run at once so that together they fit the JDBC
+ * pool, and a burst of one kind cannot starve the others. Requests that find their
+ * compartment full for longer than {@code max-wait-ms} get 503 with Retry-After.
+ *
+ * <p>Logins have a compartment of their own. They spend their time hashing the password
+ * without a connection, so it is sized to the CPUs and waits longer for a permit. They
+ * still need a connection for the user lookup and the rehash UPDATE, so a tenth of the
+ * pool (at least one connection) is left out of the other compartments for them; a
+ * burst of logins beyond that waits in the pool for up to its connection timeout.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} (Java 21+) Tomcat runs each request
+ * on its own virtual thread and its thread pool no longer limits concurrency; these
+ * compartments are then what keeps blocked JDBC calls from piling up on the pool.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    public enum Compartment { SUBMISSIONS, READS, ANALYTICS, LOGIN }
+
+    private final boolean enabled;
+    private final Map<Compartment, Long> maxWaitMillis = new EnumMap<>(Compartment.class);
+    private final Map<Compartment, Semaphore> permits = new EnumMap<>(Compartment.class);
+    private final Map<Compartment, Integer> limits = new EnumMap<>(Compartment.class);
+    private final Map<Compartment, AtomicLong> rejected = new EnumMap<>(Compartment.class);
+
+    /**
+     * Compartment sizes of 0 are derived from the pool size less the logins' share:
+     * half for submissions, 30% for reads and the rest for analytics, each at least 1.
+     * A login size of 0 is the number of available processors.
+     */
+    @Autowired
+    public BulkheadFilter(@Value("${quiz.bulkhead.enabled:true}") boolean enabled,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                          @Value("${quiz.bulkhead.submissions.max-concurrent:0}") int submissions,
+                          @Value("${quiz.bulkhead.reads.max-concurrent:0}") int reads,
+                          @Value("${quiz.bulkhead.analytics.max-concurrent:0}") int analytics,
+                          @Value("${quiz.bulkhead.login.max-concurrent:0}") int login,
+                          @Value("${quiz.bulkhead.max-wait-ms:100}") long maxWaitMillis,
+                          @Value("${quiz.bulkhead.login.max-wait-ms:2000}") long loginMaxWaitMillis) {
+        this.enabled = enabled;
+        int loginConnections = Math.max(1, poolSize / 10);
+        int budget = Math.max(1, poolSize - loginConnections);
+        int derivedSubmissions = Math.max(1, budget / 2);
+        int derivedReads = Math.max(1, budget * 3 / 10);
+        int derivedAnalytics = Math.max(1, budget - derivedSubmissions - derivedReads);
+        limits.put(Compartment.SUBMISSIONS, submissions > 0 ? submissions : derivedSubmissions);
+        limits.put(Compartment.READS, reads > 0 ? reads : derivedReads);
+        limits.put(Compartment.ANALYTICS, analytics > 0 ? analytics : derivedAnalytics);
+        limits.put(Compartment.LOGIN, login > 0 ? login : Runtime.getRuntime().availableProcessors());
+        limits.forEach((compartment, limit) -> {
+            permits.put(compartment, new Semaphore(limit));
+            rejected.put(compartment, new AtomicLong());
+            this.maxWaitMillis.put(compartment, compartment == Compartment.LOGIN ? loginMaxWaitMillis : maxWaitMillis);
+        });
+        if (enabled) {
+            logger.info("Request bulkheads: {}", limits);
+        }
+    }
+
+    static Compartment classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/login")) {
+            return Compartment.LOGIN;
+        }
+        if (path.startsWith("/quiz-statistics") || path.startsWith("/quiz-results/export")
+                || path.startsWith("/quiz-results/average-score") || path.equals("/quizzes/import")
+                || path.equals("/quizzes/export")) {
+            return Compartment.ANALYTICS;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            return Compartment.READS;
+        }
+        return Compartment.SUBMISSIONS;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Scrapes must get through while the compartments are saturated
+        return !enabled || HttpMethod.OPTIONS.matches(request.getMethod())
+                || request.getRequestURI().startsWith(request.getContextPath() + "/metrics");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Compartment compartment = classify(request);
+        Semaphore semaphore = permits.get(compartment);
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitMillis.get(compartment), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.get(compartment).incrementAndGet();
+            logger.warn("{} bulkhead full, rejecting {} {}", compartment, request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses keep their permit until the body has been written
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * Per compartment: configured limit, permits in use and requests rejected so far.
+     */
+    public Map<String, Map<String, Object>> getStatus() {
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+        for (Compartment compartment : Compartment.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            int limit = limits.get(compartment);
+            entry.put("limit", limit);
+            entry.put("inUse", limit - permits.get(compartment).availablePermits());
+            entry.put("rejected", rejected.get(compartment).get());
+            status.put(compartment.name().toLowerCase(), entry);
+        }
+        return status;
+    }
+
+    private static final class ReleasingListener implements AsyncListener {
+        private final Runnable release;
+
+        private ReleasingListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The listener is dropped when async processing restarts; register it again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package isil.java_quiz_server.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Holds back response bodies until they reach the compression threshold, so a response
+ * that ends below it is sent with a Content-Length. Tomcat only applies
+ * {@code min-response-size} to responses of known length, and the Jackson converters
+ * flush as they write, so without this every JSON, CBOR or Smile body would go out
+ * chunked and be gzipped however small it is.
+ *
+ * <p>Bodies that pass the threshold, declare their own length or are written
+ * asynchronously (streamed exports) go straight through once that is known; at most
+ * {@code min-response-bytes} are held per request.
+ */
+@Component
+public class ContentLengthFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int thresholdBytes;
+
+    @Autowired
+    public ContentLengthFilter(@Value("${quiz.compression.enabled:true}") boolean enabled,
+                               @Value("${quiz.compression.min-response-bytes:2048}") int thresholdBytes) {
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || thresholdBytes <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        BufferingResponse buffering = new BufferingResponse(request, response, thresholdBytes);
+        chain.doFilter(request, buffering);
+        // On an exception the held bytes are dropped, leaving the response to the error page
+        if (!request.isAsyncStarted()) {
+            buffering.finish();
+        }
+    }
+
+    private static final class BufferingResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private final int thresholdBytes;
+        private BufferingOutputStream outputStream;
+        private PrintWriter writer;
+
+        private BufferingResponse(HttpServletRequest request, HttpServletResponse response, int thresholdBytes) {
+            super(response);
+            this.request = request;
+            this.thresholdBytes = thresholdBytes;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new BufferingOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            super.setContentLength(len);
+            release();
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            super.setContentLengthLong(len);
+            release();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (outputStream == null || outputStream.target != null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (outputStream != null && outputStream.target == null) {
+                outputStream.count = 0;
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (outputStream != null && outputStream.target == null) {
+                outputStream.count = 0;
+            }
+        }
+
+        /**
+         * The length is already known, so hold nothing back.
+         */
+        private void release() {
+            if (outputStream == null) {
+                outputStream = new BufferingOutputStream();
+            }
+            try {
+                outputStream.release();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write the held response body", e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream == null || outputStream.target != null) {
+                return;
+            }
+            int status = getStatus();
+            if (!isCommitted() && status != SC_NO_CONTENT && status != SC_NOT_MODIFIED) {
+                super.setContentLength(outputStream.count);
+            }
+            outputStream.release();
+        }
+
+        private final class BufferingOutputStream extends ServletOutputStream {
+            private byte[] buffer;
+            private int count;
+            // The container's stream, set once bytes are no longer held
+            private ServletOutputStream target;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (target == null && (count == thresholdBytes || request.isAsyncStarted())) {
+                    release();
+                }
+                if (target != null) {
+                    target.write(b);
+                    return;
+                }
+                hold(1)[count++] = (byte) b;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (target == null && (count + len > thresholdBytes || request.isAsyncStarted())) {
+                    release();
+                }
+                if (target != null) {
+                    target.write(b, off, len);
+                    return;
+                }
+                System.arraycopy(b, off, hold(len), count, len);
+                count += len;
+            }
+
+            private byte[] hold(int len) {
+                if (buffer == null) {
+                    buffer = new byte[Math.max(len, Math.min(thresholdBytes, 512))];
+                } else if (buffer.length < count + len) {
+                    byte[] grown = new byte[Math.min(thresholdBytes, Math.max(count + len, buffer.length * 2))];
+                    System.arraycopy(buffer, 0, grown, 0, count);
+                    buffer = grown;
+                }
+                return buffer;
+            }
+
+            void release() throws IOException {
+                if (target != null) {
+                    return;
+                }
+                target = BufferingResponse.super.getOutputStream();
+                if (count > 0) {
+                    target.write(buffer, 0, count);
+                    count = 0;
+                }
+                buffer = null;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // Flushing would commit the response before its length is known
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                target.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                // Held writes never block
+                return target == null || target.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                BufferingResponse.this.release();
+                target.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -8,16 +8,24 @@ import isil.java_quiz_server.repository.UserRepository;
 import isil.java_quiz_server.repository.QuizRepository;
 import isil.java_quiz_server.repository.QuizResultRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.ArrayList;
+import java.util.random.RandomGenerator;
 
+/**
+ * Seeds an empty database with the sample teacher, students, quizzes and results. With
+ * {@code quiz.seed.mode=bulk} the {@link BulkSeeder} then adds a synthetic dataset of
+ * the configured size on top.
+ */
 @Component
 public class DataInitializer implements CommandLineRunner {
 
@@ -30,6 +38,31 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private QuizResultRepository quizResultRepository;
 
+    @Autowired
+    private BulkSeeder bulkSeeder;
+
+    @Value("${quiz.seed.mode:sample}")
+    private String seedMode;
+
+    @Value("${quiz.seed.bulk.users:10000}")
+    private int bulkUsers;
+
+    @Value("${quiz.seed.bulk.quizzes:100}")
+    private int bulkQuizzes;
+
+    @Value("${quiz.seed.bulk.questions-per-quiz:10}")
+    private int bulkQuestionsPerQuiz;
+
+    @Value("${quiz.seed.bulk.results:1000000}")
+    private int bulkResults;
+
+    @Value("${quiz.seed.bulk.seed:42}")
+    private long bulkSeed;
+
+    // Blank: results lead up to the start of today
+    @Value("${quiz.seed.bulk.until:}")
+    private String bulkUntil;
+
     private final Random random = new Random();
 
     @Override
@@ -38,9 +71,18 @@ public class DataInitializer implements CommandLineRunner {
         // Only initialize if there's no quiz result data
         if (quizResultRepository.count() == 0) {
             initializeSampleData();
+            if ("bulk".equalsIgnoreCase(seedMode)) {
+                bulkSeeder.seed(bulkPlan());
+            }
         }
     }
 
+    private BulkSeeder.Plan bulkPlan() {
+        LocalDateTime until = bulkUntil.isBlank() ? LocalDate.now().atStartOfDay() : LocalDateTime.parse(bulkUntil);
+        return new BulkSeeder.Plan("seed_student_", "Synthetic quiz ", "teacher", "password123", bulkUsers,
+                bulkQuizzes, bulkQuestionsPerQuiz, bulkResults, bulkSeed, until);
+    }
+
     @Transactional
     private void initializeSampleData() {
         System.out.println("Initializing sample student data...");
@@ -255,7 +297,7 @@ public class DataInitializer implements CommandLineRunner {
 
                     // Get actual number of questions
                     int totalQuestions = quiz.getQuestions().size();
-                    int correctAnswers = generateRealisticScore(totalQuestions);
+                    int correctAnswers = generateRealisticScore(random, totalQuestions);
 
                     result.setScore(correctAnswers);
                     result.setTotalQuestions(totalQuestions);
@@ -276,7 +318,7 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
 
-    private int generateRealisticScore(int totalQuestions) {
+    public static int generateRealisticScore(RandomGenerator random, int totalQuestions) {
         // Generate realistic score distribution
         // 20% excellent (90-100%), 30% good (75-89%), 30% average (60-74%), 20% below average (40-59%)
         double rand = random.nextDouble();
@@ -0,0 +1,105 @@
+package isil.java_quiz_server.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Creates the indexes declared in {@code @Table(indexes = ...)} on the entities when they
+ * are missing from the database. Hibernate only does this itself with ddl-auto create or
+ * update; this covers databases whose schema is managed by hand (ddl-auto none/validate),
+ * so adding an index to an entity is enough to roll it out.
+ */
+@Component
+public class IndexMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(IndexMigrator.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    @Autowired
+    public IndexMigrator(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                         @Value("${quiz.schema.create-missing-indexes:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table == null || table.indexes().length == 0) {
+                continue;
+            }
+            Set<String> existing = existingIndexes(table.name());
+            if (existing == null) {
+                logger.warn("Table {} not found, skipping its indexes", table.name());
+                continue;
+            }
+            for (Index index : table.indexes()) {
+                if (existing.contains(index.name().toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                String unique = index.unique() ? "UNIQUE " : "";
+                jdbcTemplate.execute("CREATE " + unique + "INDEX " + index.name()
+                        + " ON " + table.name() + " (" + index.columnList() + ")");
+                logger.info("Created index {} on {} ({})", index.name(), table.name(), index.columnList());
+            }
+        }
+    }
+
+    /**
+     * Lower-cased names of the indexes on {@code tableName}, or null if the table does not exist.
+     */
+    private Set<String> existingIndexes(String tableName) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Identifier case depends on the database, so try the name as declared and upper-cased
+            for (String candidate : new String[]{tableName, tableName.toUpperCase(Locale.ROOT)}) {
+                if (!tableExists(metaData, connection, candidate)) {
+                    continue;
+                }
+                Set<String> names = new HashSet<>();
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                        candidate, false, true)) {
+                    while (rs.next()) {
+                        String name = rs.getString("INDEX_NAME");
+                        if (name != null) {
+                            names.add(name.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                return names;
+            }
+            return null;
+        });
+    }
+
+    private static boolean tableExists(DatabaseMetaData metaData, Connection connection, String tableName)
+            throws SQLException {
+        try (ResultSet rs = metaData.getTables(connection.getCatalog(), connection.getSchema(), tableName, null)) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.MetricsRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Instruments the beans that touch the database: the {@code dataSource} is wrapped so
+ * every JDBC statement is timed and attributed to the current request, and every Spring
+ * Data repository gets an interceptor that times its methods and counts the rows they
+ * return. Switched off with {@code quiz.metrics.enabled=false}.
+ */
+@Component
+public class MetricsBeanPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MetricsRegistry> metricsRegistryProvider;
+    private final boolean enabled;
+    private volatile MetricsRegistry metricsRegistry;
+
+    // The registry is looked up on first use so it is not created before the post-processors
+    public MetricsBeanPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistryProvider,
+                                    @Value("${quiz.metrics.enabled:true}") boolean enabled) {
+        this.metricsRegistryProvider = metricsRegistryProvider;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled) {
+            return bean;
+        }
+        if (bean instanceof DataSource && beanName.equals("dataSource")) {
+            return StatementTrackingDataSource.wrap((DataSource) bean,
+                    (sql, nanos) -> metricsRegistry().recordStatement(sql, nanos));
+        }
+        if (bean instanceof Repository && bean instanceof Advised) {
+            Advised advised = (Advised) bean;
+            // First in the chain: Spring Data's own interceptors run the query without proceeding,
+            // and this way the time includes the transaction the repository opens
+            advised.addAdvice(0, timer(repositoryName(advised)));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor timer(String repository) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            boolean failed = true;
+            try {
+                result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                metricsRegistry().recordRepositoryCall(repository, method.getName(), System.nanoTime() - start,
+                        rowsOf(method, result), failed);
+            }
+        };
+    }
+
+    /**
+     * Rows a repository call returned; for modifying queries the rows it changed. Streams
+     * are read after the call returns and count as 0.
+     */
+    static long rowsOf(Method method, Object result) {
+        if (result == null || result instanceof java.util.stream.BaseStream) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Number && method.isAnnotationPresent(Modifying.class)) {
+            return ((Number) result).longValue();
+        }
+        return 1;
+    }
+
+    private static String repositoryName(Advised advised) {
+        Class<?> fallback = Repository.class;
+        for (Class<?> proxied : advised.getProxiedInterfaces()) {
+            if (Repository.class.isAssignableFrom(proxied)) {
+                if (!proxied.getName().startsWith("org.springframework.")) {
+                    return proxied.getSimpleName();
+                }
+                fallback = proxied;
+            }
+        }
+        return fallback.getSimpleName();
+    }
+
+    private MetricsRegistry metricsRegistry() {
+        MetricsRegistry registry = metricsRegistry;
+        if (registry == null) {
+            registry = metricsRegistryProvider.getObject();
+            metricsRegistry = registry;
+        }
+        return registry;
+    }
+}
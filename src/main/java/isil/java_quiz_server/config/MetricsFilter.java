@@ -0,0 +1,155 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.MetricsRegistry;
+import isil.java_quiz_server.service.RequestSpan;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times every request and records it against its route pattern, so {@code /quizzes/7}
+ * and {@code /quizzes/8} share one series. Runs first so the time spent in the session,
+ * rate limit and bulkhead filters is included.
+ *
+ * <p>Each request gets a trace id, taken from a well-formed {@code X-Request-Id} header
+ * or generated, which is echoed in the response and put in the logging MDC for the
+ * duration of the request.
+ *
+ * <p>With {@code quiz.metrics.statement-budget.enforce=true} a request that ran more
+ * statements than its handler's {@link StatementBudget} fails with
+ * {@link StatementBudgetExceededException} once it completes. This is meant for tests:
+ * the response has usually been written by then, so clients see no difference.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricsFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final String UNMATCHED = "UNMATCHED";
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final MetricsRegistry metricsRegistry;
+    private final boolean enabled;
+    private final int spanStatements;
+    private final boolean enforceBudgets;
+
+    @Autowired
+    public MetricsFilter(MetricsRegistry metricsRegistry,
+                         @Value("${quiz.metrics.enabled:true}") boolean enabled,
+                         @Value("${quiz.metrics.span-statements:32}") int spanStatements,
+                         @Value("${quiz.metrics.statement-budget.enforce:false}") boolean enforceBudgets) {
+        this.metricsRegistry = metricsRegistry;
+        this.enabled = enabled;
+        this.spanStatements = spanStatements;
+        this.enforceBudgets = enforceBudgets;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String traceId = traceId(request.getHeader(REQUEST_ID_HEADER));
+        response.setHeader(REQUEST_ID_HEADER, traceId);
+        RequestSpan span = RequestSpan.start(traceId, request.getMethod(), request.getRequestURI(), spanStatements);
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            span.finish();
+            if (request.isAsyncStarted()) {
+                // Recorded once the streamed body has been written
+                request.getAsyncContext().addListener(new RecordingListener(request, response, start, span));
+            } else {
+                record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        start, span);
+            }
+        }
+        // Statements of streamed responses run on other threads, so only these are checked
+        if (enforceBudgets && span.isOverBudget() && !request.isAsyncStarted()) {
+            throw new StatementBudgetExceededException(metricsRegistry.describe(span));
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long start, RequestSpan span) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED;
+        metricsRegistry.recordRequest(request.getMethod(), route, status, System.nanoTime() - start, span);
+    }
+
+    static String traceId(String requested) {
+        if (requested != null && !requested.isEmpty() && requested.length() <= MAX_REQUEST_ID_LENGTH) {
+            boolean valid = true;
+            for (int i = 0; i < requested.length() && valid; i++) {
+                char c = requested.charAt(i);
+                valid = Character.isLetterOrDigit(c) && c < 128 || c == '-' || c == '_' || c == '.';
+            }
+            if (valid) {
+                return requested;
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+    }
+
+    private final class RecordingListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+        private final RequestSpan span;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        private RecordingListener(HttpServletRequest request, HttpServletResponse response, long start,
+                                  RequestSpan span) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+            this.span = span;
+        }
+
+        private void record(int status) {
+            if (recorded.compareAndSet(false, true)) {
+                MetricsFilter.this.record(request, status, start, span);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(response.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            record(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            record(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The listener is dropped when async processing restarts; register it again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package isil.java_quiz_server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import isil.java_quiz_server.service.AttemptService;
+import isil.java_quiz_server.service.LoginService;
+import isil.java_quiz_server.service.MetricsRegistry;
+import isil.java_quiz_server.service.QuizResultIngestionService;
+import isil.java_quiz_server.service.QuizService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers the gauges {@link MetricsRegistry} reads at scrape time: cache hit rates,
+ * bulkhead and rate limiter state, the write-behind buffer, replica lag and the JDBC
+ * pools.
+ */
+@Component
+public class MetricsGauges {
+
+    public MetricsGauges(MetricsRegistry metricsRegistry, QuizService quizService, AttemptService attemptService,
+                         LoginService loginService, QuizResultIngestionService ingestionService,
+                         BulkheadFilter bulkheadFilter, RateLimitFilter rateLimitFilter, DataSource dataSource,
+                         ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        metricsRegistry.registerGauges("quiz_cache", quizService::getCacheStatistics);
+        metricsRegistry.registerGauges("attempt_cache", attemptService::getCacheStatistics);
+        metricsRegistry.registerGauges("login_cache", () -> Map.of("hits", loginService.getVerifiedCredentialHits()));
+        metricsRegistry.registerGauges("bulkhead", bulkheadFilter::getStatus);
+        metricsRegistry.registerGauges("rate_limit", rateLimitFilter::getStatus);
+        metricsRegistry.registerGauges("ingestion", () -> Map.of(
+                "pending", ingestionService.getPendingCount(),
+                "flushed", ingestionService.getFlushedCount()));
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        if (routing != null) {
+            metricsRegistry.registerGauges("replica", routing::getReplicaStatus);
+        }
+        List<HikariDataSource> pools = pools(dataSource, routing);
+        metricsRegistry.registerGauges("pool", () -> poolStatus(pools));
+    }
+
+    private static List<HikariDataSource> pools(DataSource dataSource, ReplicaRoutingDataSource routing) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        List<DataSource> candidates = routing != null ? routing.getPools() : List.of(dataSource);
+        for (DataSource candidate : candidates) {
+            try {
+                if (candidate.isWrapperFor(HikariDataSource.class)) {
+                    pools.add(candidate.unwrap(HikariDataSource.class));
+                }
+            } catch (SQLException e) {
+                // Not a Hikari pool; nothing to report
+            }
+        }
+        return pools;
+    }
+
+    private static Map<String, Map<String, Object>> poolStatus(List<HikariDataSource> pools) {
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+        for (HikariDataSource pool : pools) {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean == null) {
+                // Started lazily on the first connection
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("active", bean.getActiveConnections());
+            entry.put("idle", bean.getIdleConnections());
+            entry.put("total", bean.getTotalConnections());
+            entry.put("pending", bean.getThreadsAwaitingConnection());
+            entry.put("max", pool.getMaximumPoolSize());
+            status.put(pool.getPoolName(), entry);
+        }
+        return status;
+    }
+}
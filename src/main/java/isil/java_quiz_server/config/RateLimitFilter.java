@@ -0,0 +1,159 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.SessionPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles logins, registrations and result submissions per client IP, and per user
+ * where the user is known, so one client stuck in a retry loop cannot take the JDBC
+ * pool from everyone else. Throttled requests get 429 with Retry-After.
+ *
+ * <p>Limits are written as {@code <capacity>/<period>} under
+ * {@code quiz.ratelimit.<endpoint>.per-ip} and {@code .per-username}; a blank value turns
+ * that limit off. Runs after {@link SessionTokenFilter}, so submissions carrying a token
+ * are also limited per user. Login is limited per username by {@link #acquireForUsername}
+ * once the controller has read the request body.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public enum Endpoint { LOGIN, REGISTER, SUBMISSIONS }
+
+    private final boolean enabled;
+    private final Map<Endpoint, TokenBucketRateLimiter> perIp = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, TokenBucketRateLimiter> perUsername = new EnumMap<>(Endpoint.class);
+
+    @Autowired
+    public RateLimitFilter(@Value("${quiz.ratelimit.enabled:true}") boolean enabled,
+                           @Value("${quiz.ratelimit.login.per-ip:60/PT1M}") String loginPerIp,
+                           @Value("${quiz.ratelimit.login.per-username:10/PT5M}") String loginPerUsername,
+                           @Value("${quiz.ratelimit.register.per-ip:20/PT1H}") String registerPerIp,
+                           @Value("${quiz.ratelimit.submissions.per-ip:600/PT1M}") String submissionsPerIp,
+                           @Value("${quiz.ratelimit.submissions.per-username:30/PT1M}") String submissionsPerUsername,
+                           @Value("${quiz.ratelimit.idle-timeout:PT10M}") Duration idleTimeout,
+                           @Value("${quiz.ratelimit.max-keys:100000}") int maxKeys) {
+        this.enabled = enabled;
+        putLimit(perIp, Endpoint.LOGIN, loginPerIp, idleTimeout, maxKeys);
+        putLimit(perUsername, Endpoint.LOGIN, loginPerUsername, idleTimeout, maxKeys);
+        putLimit(perIp, Endpoint.REGISTER, registerPerIp, idleTimeout, maxKeys);
+        putLimit(perIp, Endpoint.SUBMISSIONS, submissionsPerIp, idleTimeout, maxKeys);
+        putLimit(perUsername, Endpoint.SUBMISSIONS, submissionsPerUsername, idleTimeout, maxKeys);
+        if (enabled) {
+            logger.info("Rate limits per IP: {}, per username: {}", perIp, perUsername);
+        }
+    }
+
+    private static void putLimit(Map<Endpoint, TokenBucketRateLimiter> limits, Endpoint endpoint, String spec,
+                                 Duration idleTimeout, int maxKeys) {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.parse(spec, idleTimeout, maxKeys);
+        if (limiter != null) {
+            limits.put(endpoint, limiter);
+        }
+    }
+
+    static Endpoint classify(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        switch (path) {
+            case "/login":
+                return Endpoint.LOGIN;
+            case "/register":
+                return Endpoint.REGISTER;
+            case "/quiz-results":
+                return Endpoint.SUBMISSIONS;
+            default:
+                return path.startsWith("/quizzes/") && path.endsWith("/submissions") ? Endpoint.SUBMISSIONS : null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !HttpMethod.POST.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = classify(request);
+        if (endpoint != null) {
+            long waitNanos = acquire(perIp, endpoint, request.getRemoteAddr());
+            Object principal = request.getAttribute(SessionPrincipal.ATTRIBUTE);
+            if (waitNanos == 0 && principal instanceof SessionPrincipal) {
+                waitNanos = acquire(perUsername, endpoint, ((SessionPrincipal) principal).getUsername());
+            }
+            if (waitNanos > 0) {
+                logger.debug("Rate limit reached for {} from {}", endpoint, request.getRemoteAddr());
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(waitNanos)));
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Takes a token from the endpoint's per-username bucket. Returns 0 when the request
+     * may proceed, otherwise the nanoseconds to wait.
+     */
+    public long acquireForUsername(Endpoint endpoint, String username) {
+        if (!enabled || username == null) {
+            return 0;
+        }
+        return acquire(perUsername, endpoint, username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static long acquire(Map<Endpoint, TokenBucketRateLimiter> limits, Endpoint endpoint, String key) {
+        TokenBucketRateLimiter limiter = limits.get(endpoint);
+        return limiter == null || key == null ? 0 : limiter.tryAcquire(key);
+    }
+
+    /**
+     * Per endpoint and key kind: the configured limit, clients currently tracked and
+     * requests refused so far.
+     */
+    public Map<String, Map<String, Object>> getStatus() {
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+        perIp.forEach((endpoint, limiter) -> status.put(endpoint.name().toLowerCase() + ".per-ip", describe(limiter)));
+        perUsername.forEach((endpoint, limiter) ->
+                status.put(endpoint.name().toLowerCase() + ".per-username", describe(limiter)));
+        return status;
+    }
+
+    private static Map<String, Object> describe(TokenBucketRateLimiter limiter) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("limit", limiter.toString());
+        entry.put("trackedKeys", limiter.getTrackedKeys());
+        entry.put("rejected", limiter.getRejected());
+        return entry;
+    }
+}
@@ -0,0 +1,217 @@
+package isil.java_quiz_server.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions opened by application code to a replica
+ * and everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is fetched after the transaction's read-only flag is known.
+ *
+ * <p>Replica lag is measured with a heartbeat row: the primary stamps
+ * {@code replica_heartbeat} every check interval and each replica's copy of the stamp
+ * gives its lag. A replica that lags more than {@code maxLagMillis}, fails the check or
+ * refuses a connection is skipped until a later check finds it healthy; with no healthy
+ * replica, reads go to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    // Spring Data opens a read-only transaction around every bare repository call. Those
+    // stay on the primary: only service methods that opt in read from a replica.
+    private static final String REPOSITORY_TRANSACTION_PREFIX = "org.springframework.data.";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService monitor;
+    private volatile boolean heartbeatTableCreated;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    long maxLagMillis, long checkIntervalMillis) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        checkLag();
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::checkLag, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isReplicaEligible()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credentials are configured per pool
+        return getConnection();
+    }
+
+    private static boolean isReplicaEligible() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name == null || !name.startsWith(REPOSITORY_TRANSACTION_PREFIX);
+    }
+
+    /**
+     * A connection to the next healthy replica in round-robin order, or null if none
+     * will give one.
+     */
+    private Connection replicaConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.healthy = false;
+                logger.warn("Replica {} refused a connection, reading from the primary until it recovers: {}",
+                        replica.name, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stamps the heartbeat on the primary and re-evaluates every replica against it.
+     */
+    void checkLag() {
+        long now = System.currentTimeMillis();
+        try (Connection connection = primary.getConnection()) {
+            writeHeartbeat(connection, now);
+        } catch (SQLException e) {
+            logger.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT beat_at FROM replica_heartbeat WHERE id = 1")) {
+                replica.lagMillis = rs.next() ? Math.max(0, now - rs.getLong(1)) : -1;
+                replica.healthy = replica.lagMillis >= 0 && replica.lagMillis <= maxLagMillis;
+            } catch (SQLException e) {
+                replica.lagMillis = -1;
+                replica.healthy = false;
+            }
+            if (wasHealthy != replica.healthy) {
+                logger.info("Replica {} is now {} (lag {} ms)", replica.name,
+                        replica.healthy ? "in rotation" : "out of rotation", replica.lagMillis);
+            }
+        }
+    }
+
+    private void writeHeartbeat(Connection connection, long now) throws SQLException {
+        if (!heartbeatTableCreated) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+            }
+            heartbeatTableCreated = true;
+        }
+        try (PreparedStatement update = connection.prepareStatement("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1")) {
+            update.setLong(1, now);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)")) {
+            insert.setLong(1, now);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Health and last measured lag (-1 when unknown) of each replica, by name.
+     */
+    public Map<String, Map<String, Object>> getReplicaStatus() {
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("healthy", replica.healthy);
+            entry.put("lagMillis", replica.lagMillis);
+            status.put(replica.name, entry);
+        }
+        return status;
+    }
+
+    /**
+     * The primary and replica pools, primary first.
+     */
+    public List<DataSource> getPools() {
+        List<DataSource> pools = new ArrayList<>(replicas.size() + 1);
+        pools.add(primary);
+        for (Replica replica : replicas) {
+            pools.add(replica.dataSource);
+        }
+        return pools;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.SessionPrincipal;
+import isil.java_quiz_server.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies {@code Authorization: Bearer} session tokens and exposes the caller as a
+ * {@link SessionPrincipal} request attribute. Verification only checks the signature and
+ * expiry, so it never touches the database. A request with a bad token gets 401; a
+ * request without one continues anonymously unless it submits results and
+ * {@code quiz.security.token.required-for-submissions} is on.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SessionTokenFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SessionTokenFilter.class);
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+    private final boolean requiredForSubmissions;
+
+    @Autowired
+    public SessionTokenFilter(SessionTokenService sessionTokenService,
+                              @Value("${quiz.security.token.required-for-submissions:false}") boolean requiredForSubmissions) {
+        this.sessionTokenService = sessionTokenService;
+        this.requiredForSubmissions = requiredForSubmissions;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)) {
+            SessionPrincipal principal = sessionTokenService.verify(header.substring(BEARER.length()).trim());
+            if (principal == null) {
+                logger.warn("Rejecting invalid or expired session token for {} {}", request.getMethod(), request.getRequestURI());
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                return;
+            }
+            request.setAttribute(SessionPrincipal.ATTRIBUTE, principal);
+        } else if (requiredForSubmissions && isSubmission(request)) {
+            logger.warn("Rejecting unauthenticated submission to {}", request.getRequestURI());
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static boolean isSubmission(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/quiz-results") || (path.startsWith("/quizzes/") && path.endsWith("/submissions"));
+    }
+}
@@ -0,0 +1,19 @@
+package isil.java_quiz_server.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most JDBC statements a handler may run for one request. Requests over budget are
+ * flagged by the metrics; with {@code quiz.metrics.statement-budget.enforce=true}, as in
+ * the tests, they fail instead, so a query that turns into an N+1 breaks the build.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value();
+}
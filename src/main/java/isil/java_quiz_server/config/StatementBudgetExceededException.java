@@ -0,0 +1,12 @@
+package isil.java_quiz_server.config;
+
+/**
+ * Thrown when a request ran more statements than its {@link StatementBudget} and budgets
+ * are enforced.
+ */
+public class StatementBudgetExceededException extends IllegalStateException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
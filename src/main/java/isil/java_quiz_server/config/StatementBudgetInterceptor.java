@@ -0,0 +1,33 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.RequestSpan;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands the {@link StatementBudget} of the handler about to run to the request's span.
+ */
+@Component
+public class StatementBudgetInterceptor implements HandlerInterceptor {
+    private static final Integer NO_BUDGET = -1;
+
+    private final ConcurrentHashMap<Method, Integer> budgets = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSpan span = RequestSpan.current();
+        if (span != null && handler instanceof HandlerMethod) {
+            span.setStatementBudget(budgets.computeIfAbsent(((HandlerMethod) handler).getMethod(), method -> {
+                StatementBudget budget = method.getAnnotation(StatementBudget.class);
+                return budget != null ? budget.value() : NO_BUDGET;
+            }));
+        }
+        return true;
+    }
+}
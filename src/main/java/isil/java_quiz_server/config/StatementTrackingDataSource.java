@@ -0,0 +1,153 @@
+package isil.java_quiz_server.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Wraps a {@link DataSource} so that every statement execution is timed and reported
+ * with its SQL to a {@link StatementListener}. Connections and statements are JDK
+ * proxies around the pool's own objects; everything except statement creation and
+ * execution passes straight through, and {@code unwrap} still reaches the pool.
+ */
+public final class StatementTrackingDataSource {
+
+    @FunctionalInterface
+    public interface StatementListener {
+        /**
+         * Called after each execute call on the thread that made it. {@code sql} is the
+         * statement text, or the last batched text for plain statements.
+         */
+        void onStatement(String sql, long nanos);
+    }
+
+    private StatementTrackingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource target, StatementListener listener) {
+        Class<?>[] interfaces = target instanceof AutoCloseable
+                // Keeps the pool's close() visible so the container still shuts it down
+                ? new Class<?>[]{DataSource.class, AutoCloseable.class}
+                : new Class<?>[]{DataSource.class};
+        return (DataSource) Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(), interfaces,
+                new DataSourceHandler(target, listener));
+    }
+
+    /**
+     * The data source behind a tracking wrapper, for bulk work whose statements would only
+     * drown out the ones worth reporting; any other data source is returned as is.
+     */
+    public static DataSource untracked(DataSource dataSource) {
+        if (Proxy.isProxyClass(dataSource.getClass())
+                && Proxy.getInvocationHandler(dataSource) instanceof DataSourceHandler handler) {
+            return handler.target;
+        }
+        return dataSource;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class DataSourceHandler implements InvocationHandler {
+        private final DataSource target;
+        private final StatementListener listener;
+
+        private DataSourceHandler(DataSource target, StatementListener listener) {
+            this.target = target;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    Connection connection = (Connection) StatementTrackingDataSource.invoke(target, method, args);
+                    return Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(),
+                            new Class<?>[]{Connection.class}, new ConnectionHandler(connection, listener));
+                case "close":
+                    ((AutoCloseable) target).close();
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StatementTracking(" + target + ")";
+                default:
+                    return StatementTrackingDataSource.invoke(target, method, args);
+            }
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final StatementListener listener;
+
+        private ConnectionHandler(Connection target, StatementListener listener) {
+            this.target = target;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                case "prepareCall":
+                case "createStatement":
+                    Statement statement = (Statement) StatementTrackingDataSource.invoke(target, method, args);
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                    return Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(),
+                            new Class<?>[]{method.getReturnType()}, new StatementHandler(statement, sql, listener));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return StatementTrackingDataSource.invoke(target, method, args);
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final StatementListener listener;
+        private String sql;
+
+        private StatementHandler(Statement target, String sql, StatementListener listener) {
+            this.target = target;
+            this.sql = sql;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                long start = System.nanoTime();
+                try {
+                    return StatementTrackingDataSource.invoke(target, method, args);
+                } finally {
+                    listener.onStatement(executed, System.nanoTime() - start);
+                }
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                sql = (String) args[0];
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return StatementTrackingDataSource.invoke(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package isil.java_quiz_server.config;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by client, one {@link AtomicLong} per key and no locks.
+ *
+ * <p>Each bucket stores only the time at which it would be full again (the "theoretical
+ * arrival time" of the generic cell rate algorithm). Taking a token moves that time one
+ * refill interval forward with a CAS; the request is refused when it would end up more
+ * than {@code capacity} intervals ahead of now. This behaves exactly like a bucket of
+ * {@code capacity} tokens refilled continuously, without a separate token count.
+ *
+ * <p>Buckets that have been full for longer than the idle timeout are dropped by a sweep
+ * that one caller at a time runs as part of an ordinary acquire. A request racing with
+ * the sweep of its own bucket may get one extra token, which is harmless here.
+ */
+public final class TokenBucketRateLimiter {
+    private final long capacity;
+    private final Duration period;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long idleNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt;
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketRateLimiter(long capacity, Duration period, Duration idleTimeout, int maxKeys) {
+        this(capacity, period, idleTimeout, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, Duration period, Duration idleTimeout, int maxKeys, LongSupplier nanoClock) {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+        }
+        this.capacity = capacity;
+        this.period = period;
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.idleNanos = idleTimeout.toNanos();
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = new AtomicLong(nanoClock.getAsLong() + idleNanos);
+    }
+
+    /**
+     * Parses a limit written as {@code <capacity>/<ISO-8601 period>}, e.g. {@code 60/PT1M}
+     * for bursts of 60 refilled at one per second. A blank spec means no limit (null).
+     */
+    public static TokenBucketRateLimiter parse(String spec, Duration idleTimeout, int maxKeys) {
+        if (spec == null || spec.isBlank()) {
+            return null;
+        }
+        int slash = spec.indexOf('/');
+        if (slash <= 0) {
+            throw new IllegalArgumentException("Rate limit must look like 60/PT1M: " + spec);
+        }
+        return new TokenBucketRateLimiter(Long.parseLong(spec.substring(0, slash).trim()),
+                Duration.parse(spec.substring(slash + 1).trim()), idleTimeout, maxKeys);
+    }
+
+    /**
+     * Takes a token for the key. Returns 0 when the request may proceed, otherwise the
+     * nanoseconds until the next token is available.
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        if (now - nextSweepAt.get() >= 0) {
+            sweep(now);
+        }
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweep(now);
+                if (buckets.size() >= maxKeys) {
+                    // Too many active clients to track; the other limits still apply
+                    return 0;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(now));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long newTat = (tat - now > 0 ? tat : now) + intervalNanos;
+            long ahead = newTat - now;
+            if (ahead > burstNanos) {
+                rejected.increment();
+                return ahead - burstNanos;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    private void sweep(long now) {
+        long due = nextSweepAt.get();
+        if (!nextSweepAt.compareAndSet(due, now + Math.max(idleNanos / 2, 1))) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> now - bucket.get() > idleNanos);
+    }
+
+    public int getTrackedKeys() {
+        return buckets.size();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return capacity + "/" + period;
+    }
+
+    private static final class Bucket extends AtomicLong {
+        private Bucket(long fullAt) {
+            super(fullAt);
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package isil.java_quiz_server.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import isil.java_quiz_server.service.WireFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Arrays;
@@ -13,6 +23,17 @@ import java.util.Arrays;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final StatementBudgetInterceptor statementBudgetInterceptor;
+
+    public WebConfig(StatementBudgetInterceptor statementBudgetInterceptor) {
+        this.statementBudgetInterceptor = statementBudgetInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementBudgetInterceptor);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -22,6 +43,42 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true);
     }
 
+    /*
+     * Spring registers CBOR and Smile converters on its own when the dataformats are on
+     * the classpath, but with a fresh mapper. These replace them in place (after JSON, so
+     * JSON stays the default) with copies of Spring Boot's mapper, so every format has
+     * the same modules, date handling and naming as the JSON responses.
+     */
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(WireFormat.CBOR.mapperFrom(objectMapper));
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(WireFormat.SMILE.mapperFrom(objectMapper));
+    }
+
+    /**
+     * Gzips responses of at least {@code min-response-bytes} when the client accepts it.
+     * Smaller ones are sent as they are, since compressing them costs more CPU than it
+     * saves on the wire.
+     */
+    @Bean
+    WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> compressionCustomizer(
+            @Value("${quiz.compression.enabled:true}") boolean enabled,
+            @Value("${quiz.compression.min-response-bytes:2048}") long minResponseBytes) {
+        return factory -> {
+            Compression compression = new Compression();
+            compression.setEnabled(enabled);
+            compression.setMinResponseSize(DataSize.ofBytes(minResponseBytes));
+            compression.setMimeTypes(new String[]{"application/json", "application/x-ndjson", "application/cbor",
+                    "application/x-jackson-smile", "application/octet-stream", "text/csv", "text/plain"});
+            factory.setCompression(compression);
+        };
+    }
+
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,71 @@
+package isil.java_quiz_server.controller;
+
+import isil.java_quiz_server.service.MetricsRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prometheus scrape endpoint and the recently flagged requests. Both only answer loopback
+ * clients unless {@code quiz.metrics.allow-remote=true}.
+ */
+@RestController
+public class MetricsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsController.class);
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    private final MetricsRegistry metricsRegistry;
+    private final boolean allowRemote;
+
+    @Autowired
+    public MetricsController(MetricsRegistry metricsRegistry,
+                             @Value("${quiz.metrics.allow-remote:false}") boolean allowRemote) {
+        this.metricsRegistry = metricsRegistry;
+        this.allowRemote = allowRemote;
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<String> scrape(HttpServletRequest request) {
+        if (!isAllowed(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(metricsRegistry.scrape());
+    }
+
+    @GetMapping("/metrics/flagged-requests")
+    public ResponseEntity<List<Map<String, Object>>> getFlaggedRequests(HttpServletRequest request) {
+        if (!isAllowed(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(metricsRegistry.getFlaggedRequests());
+    }
+
+    private boolean isAllowed(HttpServletRequest request) {
+        if (allowRemote) {
+            return true;
+        }
+        try {
+            // A literal address, so this never goes to DNS
+            if (InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress()) {
+                return true;
+            }
+        } catch (UnknownHostException e) {
+            // Treated as remote
+        }
+        logger.warn("Rejected metrics request from {}", request.getRemoteAddr());
+        return false;
+    }
+}
@@ -1,16 +1,43 @@
 package isil.java_quiz_server.controller;
 
+import isil.java_quiz_server.config.StatementBudget;
 import isil.java_quiz_server.modal.Quiz;
 import isil.java_quiz_server.modal.QuizResult;
 import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.requests.QuizSubmission;
+import isil.java_quiz_server.response.AttemptSummary;
+import isil.java_quiz_server.response.KeysetPage;
+import isil.java_quiz_server.response.QuizImportReport;
+import isil.java_quiz_server.response.LeaderboardRank;
+import isil.java_quiz_server.response.QuizSummary;
+import isil.java_quiz_server.response.ScoreDistribution;
+import isil.java_quiz_server.response.SubmissionReceipt;
+import isil.java_quiz_server.service.AttemptService;
+import isil.java_quiz_server.service.CachedQuiz;
+import isil.java_quiz_server.service.QuizResultExportService;
+import isil.java_quiz_server.service.QuizResultIngestionService;
 import isil.java_quiz_server.service.QuizResultService;
+import isil.java_quiz_server.service.QuizService;
+import isil.java_quiz_server.service.QuizStatisticsService;
+import isil.java_quiz_server.service.QuizTransferService;
+import isil.java_quiz_server.service.SessionPrincipal;
+import isil.java_quiz_server.service.WireFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,14 +47,28 @@ import java.util.Optional;
 public class QuizController {
 
     private static final Logger logger = LoggerFactory.getLogger(QuizController.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final QuizRepository quizRepository;
+    private final QuizService quizService;
     private final QuizResultService quizResultService;
+    private final QuizResultIngestionService ingestionService;
+    private final QuizStatisticsService quizStatisticsService;
+    private final QuizResultExportService exportService;
+    private final QuizTransferService transferService;
 
     @Autowired
-    public QuizController(QuizRepository quizRepository, QuizResultService quizResultService) {
+    public QuizController(QuizRepository quizRepository, QuizService quizService,
+                          QuizResultService quizResultService, QuizResultIngestionService ingestionService,
+                          QuizStatisticsService quizStatisticsService, QuizResultExportService exportService,
+                          QuizTransferService transferService) {
         this.quizRepository = quizRepository;
+        this.quizService = quizService;
         this.quizResultService = quizResultService;
+        this.ingestionService = ingestionService;
+        this.quizStatisticsService = quizStatisticsService;
+        this.exportService = exportService;
+        this.transferService = transferService;
     }
 
     @PostConstruct
@@ -35,35 +76,98 @@ public class QuizController {
         logger.info("QuizResultService injected: {}", quizResultService != null);
     }
 
+    // The catalog fetch plan: quizzes with questions, then their options
+    @StatementBudget(2)
     @GetMapping("/quizzes")
     public ResponseEntity<List<Quiz>> getAllQuizzes() {
         logger.debug("Fetching all quizzes");
-        List<Quiz> quizzes = quizRepository.findAll();
+        List<Quiz> quizzes = quizRepository.findCatalog();
         return ResponseEntity.ok(quizzes);
     }
 
+    @StatementBudget(1)
+    @GetMapping("/quizzes/summary")
+    public ResponseEntity<KeysetPage<QuizSummary>> getQuizSummaries(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Fetching quiz summaries after ID: {}, limit: {}", afterId, limit);
+        int pageSize = clampPageSize(limit);
+        List<QuizSummary> summaries = quizRepository.findSummariesAfter(afterId, Limit.of(pageSize));
+        return ResponseEntity.ok(KeysetPage.of(summaries, pageSize, QuizSummary::getId));
+    }
+
     @PostMapping("/quizzes")
     public ResponseEntity<Quiz> createQuiz(@RequestBody Quiz quiz) {
-        logger.debug("Creating quiz: {}", quiz != null ? quiz.getTitle() : "null");
+        if (logger.isDebugEnabled()) {
+            logger.debug("Creating quiz: {}", quiz != null ? quiz.getTitle() : "null");
+        }
         if (quiz == null || quiz.getTitle() == null || quiz.getUsername() == null) {
             logger.warn("Invalid quiz data provided: title={}, username={}", 
                 quiz != null ? quiz.getTitle() : "null", 
                 quiz != null ? quiz.getUsername() : "null");
             return ResponseEntity.badRequest().build();
         }
-        Quiz savedQuiz = quizRepository.save(quiz);
+        Quiz savedQuiz = quizService.saveQuiz(quiz);
         logger.info("Quiz created successfully: id={}", savedQuiz.getId());
         return ResponseEntity.ok(savedQuiz);
     }
 
+    /**
+     * Creates a quiz from every record of an NDJSON or length-prefixed Smile body (see
+     * {@link QuizTransferService}), reading it as it arrives. Answers with a report of
+     * what was imported and which records failed.
+     */
+    @PostMapping("/quizzes/import")
+    public ResponseEntity<QuizImportReport> importQuizzes(@RequestParam(defaultValue = "ndjson") String format,
+                                                          InputStream body) throws IOException {
+        logger.debug("Importing quizzes: format={}", format);
+        QuizTransferService.Format importFormat = QuizTransferService.Format.parse(format);
+        if (importFormat == null) {
+            logger.warn("Unsupported import format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transferService.importQuizzes(importFormat, body));
+    }
+
+    @GetMapping("/quizzes/export")
+    public ResponseEntity<StreamingResponseBody> exportQuizzes(@RequestParam(defaultValue = "ndjson") String format) {
+        logger.debug("Exporting quizzes: format={}", format);
+        QuizTransferService.Format exportFormat = QuizTransferService.Format.parse(format);
+        if (exportFormat == null) {
+            logger.warn("Unsupported export format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType contentType = exportFormat == QuizTransferService.Format.SMILE
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : MediaType.APPLICATION_NDJSON;
+        String filename = "quizzes." + exportFormat.name().toLowerCase();
+        StreamingResponseBody body = out -> transferService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @StatementBudget(2)
     @GetMapping("/quizzes/{id}")
-    public ResponseEntity<Quiz> getQuizById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getQuizById(@PathVariable Long id,
+                                              @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.debug("Fetching quiz with ID: {}", id);
-        Optional<Quiz> quizOptional = quizRepository.findById(id);
+        WireFormat format = WireFormat.negotiate(accept);
+        if (format == null) {
+            logger.warn("No acceptable format for quiz with ID {}: {}", id, accept);
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        Optional<CachedQuiz> quizOptional = quizService.getQuiz(id);
+        // The ETag lets Spring answer a matching If-None-Match with 304 and no body
         return quizOptional
                 .map(quiz -> {
-                    logger.info("Quiz found: id={}", id);
-                    return ResponseEntity.ok(quiz);
+                    logger.debug("Quiz found: id={}", id);
+                    return ResponseEntity.ok()
+                            .contentType(format.getMediaType())
+                            .eTag(quiz.getEtag(format))
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(quizService.getBody(quiz, format));
                 })
                 .orElseGet(() -> {
                     logger.warn("Quiz with ID {} not found", id);
@@ -71,62 +175,237 @@ public class QuizController {
                 });
     }
 
+    @GetMapping("/quiz-cache/stats")
+    public ResponseEntity<Map<String, Object>> getQuizCacheStatistics() {
+        logger.debug("Fetching quiz cache statistics");
+        return ResponseEntity.ok(quizService.getCacheStatistics());
+    }
+
+    @StatementBudget(12)
     @PostMapping("/quiz-results")
-    public ResponseEntity<QuizResult> submitQuizResult(@RequestBody QuizResult quizResult) {
-        logger.debug("Submitting quiz result for user ID: {}, quiz ID: {}", 
-            quizResult != null ? quizResult.getUserId() : "null", 
-            quizResult != null ? quizResult.getQuizId() : "null");
+    public ResponseEntity<?> submitQuizResult(@RequestBody QuizResult quizResult,
+                                              @RequestAttribute(name = SessionPrincipal.ATTRIBUTE, required = false)
+                                              SessionPrincipal principal) {
+        if (quizResult != null && principal != null) {
+            // A verified token decides who submitted, whatever the body claims
+            quizResult.setUserId(principal.getUserId());
+            quizResult.setUsername(principal.getUsername());
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Submitting quiz result for user ID: {}, quiz ID: {}",
+                    quizResult != null ? quizResult.getUserId() : "null",
+                    quizResult != null ? quizResult.getQuizId() : "null");
+        }
         if (quizResult == null || quizResult.getUserId() == null || quizResult.getQuizId() == null) {
             logger.warn("Invalid quiz result data provided");
             return ResponseEntity.badRequest().build();
         }
-        QuizResult savedResult = quizResultService.saveQuizResult(quizResult);
-        logger.info("Quiz result saved: id={}", savedResult.getId());
-        return ResponseEntity.ok(savedResult);
+        return acceptQuizResult(quizResult);
     }
 
+    /**
+     * Saves the result right away, or in write-behind mode queues it and answers 202
+     * with a receipt, or 503 with Retry-After when the buffer is full. Answers 409 when
+     * the user has used up the quiz's attempts.
+     */
+    private ResponseEntity<?> acceptQuizResult(QuizResult quizResult) {
+        AttemptService.Reservation reservation =
+                quizResultService.reserveAttempt(quizResult.getUserId(), quizResult.getQuizId());
+        if (reservation == null) {
+            logger.warn("Attempt limit reached for user ID: {} on quiz ID: {}",
+                    quizResult.getUserId(), quizResult.getQuizId());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        if (!ingestionService.isEnabled()) {
+            QuizResult savedResult;
+            try {
+                savedResult = quizResultService.saveQuizResult(quizResult);
+            } finally {
+                reservation.release();
+            }
+            logger.debug("Quiz result saved: id={}", savedResult.getId());
+            return ResponseEntity.ok(savedResult);
+        }
+        String receipt = ingestionService.submit(quizResult, reservation);
+        if (receipt == null) {
+            logger.warn("Quiz result buffer full, rejecting submission for user ID: {}", quizResult.getUserId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        logger.debug("Quiz result queued: receipt={}", receipt);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new SubmissionReceipt(receipt, LocalDateTime.now()));
+    }
+
+    // Cold caches: the quiz, attempt summary and leaderboard loads, the insert and the
+    // statistics and histogram upserts
+    @StatementBudget(12)
+    @PostMapping("/quizzes/{quizId}/submissions")
+    public ResponseEntity<?> submitQuizAnswers(@PathVariable Long quizId,
+                                               @RequestBody QuizSubmission submission,
+                                               @RequestAttribute(name = SessionPrincipal.ATTRIBUTE, required = false)
+                                               SessionPrincipal principal) {
+        logger.debug("Submitting answers for quiz ID: {}", quizId);
+        if (submission != null && principal != null) {
+            submission.setUserId(principal.getUserId());
+            submission.setUsername(principal.getUsername());
+        }
+        if (submission == null || submission.getUserId() == null || submission.getAnswers() == null) {
+            logger.warn("Invalid quiz submission provided");
+            return ResponseEntity.badRequest().build();
+        }
+        QuizResult gradedResult = quizResultService.gradeSubmission(quizId, submission);
+        if (gradedResult == null) {
+            logger.warn("Quiz with ID {} not found", quizId);
+            return ResponseEntity.notFound().build();
+        }
+        logger.debug("Quiz submission graded: score={}", gradedResult.getScore());
+        return acceptQuizResult(gradedResult);
+    }
+
+    /*
+     * The result listings below return the full list when no limit is given, as they always
+     * have. With a limit they return one KeysetPage ordered by id; pass nextAfterId back as
+     * afterId for the following page. All and recent results are newest first either way,
+     * and a quiz's results highest score first; those page with nextBefore passed back as
+     * before.
+     */
+
+    @StatementBudget(1)
     @GetMapping("/quiz-results")
-    public ResponseEntity<List<QuizResult>> getAllQuizResults() {
+    public ResponseEntity<?> getAllQuizResults(@RequestParam(required = false) String before,
+                                               @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching all quiz results");
-        List<QuizResult> results = quizResultService.getAllResults();
-        return ResponseEntity.ok(results);
+        if (limit == null) {
+            return ResponseEntity.ok(quizResultService.getAllResults());
+        }
+        int pageSize = clampPageSize(limit);
+        try {
+            return ResponseEntity.ok(KeysetPage.before(quizResultService.getAllResults(before, pageSize),
+                    pageSize, QuizResultService::cursorOf));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    @GetMapping("/quiz-results/export")
+    public ResponseEntity<StreamingResponseBody> exportQuizResults(@RequestParam(defaultValue = "ndjson") String format,
+                                                                   @RequestParam(required = false) Long quizId) {
+        logger.debug("Exporting quiz results: format={}, quizId={}", format, quizId);
+        QuizResultExportService.Format exportFormat = QuizResultExportService.Format.parse(format);
+        if (exportFormat == null) {
+            logger.warn("Unsupported export format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType contentType = exportFormat == QuizResultExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String filename = "quiz-results." + exportFormat.name().toLowerCase();
+        StreamingResponseBody body = out -> exportService.export(exportFormat, quizId, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @StatementBudget(1)
     @GetMapping("/quiz-results/quiz/{quizId}")
-    public ResponseEntity<List<QuizResult>> getResultsByQuizId(@PathVariable Long quizId) {
+    public ResponseEntity<?> getResultsByQuizId(@PathVariable Long quizId,
+                                                @RequestParam(required = false) String before,
+                                                @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching quiz results for quiz ID: {}", quizId);
-        List<QuizResult> results = quizResultService.getResultsByQuizId(quizId);
-        return ResponseEntity.ok(results);
+        if (limit == null) {
+            return ResponseEntity.ok(quizResultService.getResultsByQuizId(quizId));
+        }
+        int pageSize = clampPageSize(limit);
+        try {
+            return ResponseEntity.ok(KeysetPage.before(quizResultService.getResultsByQuizId(quizId, before, pageSize),
+                    pageSize, QuizResultService::scoreCursorOf));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    @StatementBudget(1)
     @GetMapping("/quiz-results/user/{userId}")
-    public ResponseEntity<List<QuizResult>> getResultsByUserId(@PathVariable Long userId) {
+    public ResponseEntity<?> getResultsByUserId(@PathVariable Long userId,
+                                                @RequestParam(defaultValue = "0") Long afterId,
+                                                @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching quiz results for user ID: {}", userId);
-        List<QuizResult> results = quizResultService.getResultsByUserId(userId);
-        return ResponseEntity.ok(results);
+        if (limit == null) {
+            return ResponseEntity.ok(quizResultService.getResultsByUserId(userId));
+        }
+        int pageSize = clampPageSize(limit);
+        return ResponseEntity.ok(KeysetPage.of(quizResultService.getResultsByUserId(userId, afterId, pageSize),
+                pageSize, QuizResult::getId));
     }
 
+    @StatementBudget(1)
     @GetMapping("/quiz-results/username/{username}")
-    public ResponseEntity<List<QuizResult>> getResultsByUsername(@PathVariable String username) {
+    public ResponseEntity<?> getResultsByUsername(@PathVariable String username,
+                                                  @RequestParam(defaultValue = "0") Long afterId,
+                                                  @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching quiz results for username: {}", username);
-        List<QuizResult> results = quizResultService.getResultsByUsername(username);
-        return ResponseEntity.ok(results);
+        if (limit == null) {
+            return ResponseEntity.ok(quizResultService.getResultsByUsername(username));
+        }
+        int pageSize = clampPageSize(limit);
+        return ResponseEntity.ok(KeysetPage.of(quizResultService.getResultsByUsername(username, afterId, pageSize),
+                pageSize, QuizResult::getId));
     }
 
+    @StatementBudget(1)
     @GetMapping("/quiz-results/recent")
-    public ResponseEntity<List<QuizResult>> getRecentResults() {
+    public ResponseEntity<?> getRecentResults(@RequestParam(required = false) String before,
+                                              @RequestParam(required = false) Integer limit) {
         logger.debug("Fetching recent quiz results");
-        List<QuizResult> results = quizResultService.getRecentResults();
-        return ResponseEntity.ok(results);
+        if (limit == null) {
+            return ResponseEntity.ok(quizResultService.getRecentResults());
+        }
+        int pageSize = clampPageSize(limit);
+        try {
+            return ResponseEntity.ok(KeysetPage.before(quizResultService.getRecentResults(before, pageSize),
+                    pageSize, QuizResultService::cursorOf));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/quiz-results/top-performers/{quizId}")
-    public ResponseEntity<List<QuizResult>> getTopPerformersForQuiz(@PathVariable Long quizId) {
-        logger.debug("Fetching top performers for quiz ID: {}", quizId);
-        List<QuizResult> results = quizResultService.getTopPerformersForQuiz(quizId);
+    public ResponseEntity<List<QuizResult>> getTopPerformersForQuiz(@PathVariable Long quizId,
+                                                                    @RequestParam(defaultValue = "10") int limit,
+                                                                    @RequestParam(required = false) Long around) {
+        logger.debug("Fetching top performers for quiz ID: {}, limit: {}, around: {}", quizId, limit, around);
+        int pageSize = clampPageSize(limit);
+        List<QuizResult> results = around == null
+                ? quizResultService.getTopPerformersForQuiz(quizId, pageSize)
+                : quizResultService.getPerformersAroundUser(quizId, around, pageSize);
         return ResponseEntity.ok(results);
     }
 
+    @GetMapping("/quiz-results/rank/{quizId}/{userId}")
+    public ResponseEntity<LeaderboardRank> getUserRank(@PathVariable Long quizId, @PathVariable Long userId) {
+        logger.debug("Fetching rank for user ID: {} on quiz ID: {}", userId, quizId);
+        LeaderboardRank rank = quizResultService.getUserRank(quizId, userId);
+        if (rank == null) {
+            logger.warn("User ID {} has no result for quiz ID {}", userId, quizId);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(rank);
+    }
+
+    @StatementBudget(3)
+    @GetMapping("/quiz-results/attempts/{quizId}/{userId}")
+    public ResponseEntity<AttemptSummary> getAttemptSummary(@PathVariable Long quizId, @PathVariable Long userId) {
+        logger.debug("Fetching attempts for user ID: {} on quiz ID: {}", userId, quizId);
+        AttemptSummary summary = quizResultService.getAttemptSummary(userId, quizId);
+        if (summary == null) {
+            logger.warn("Quiz with ID {} not found", quizId);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(summary);
+    }
+
     @GetMapping("/quiz-results/average-score/{quizId}")
     public ResponseEntity<Double> getAverageScoreForQuiz(@PathVariable Long quizId) {
         logger.debug("Fetching average score for quiz ID: {}", quizId);
@@ -134,10 +413,37 @@ public class QuizController {
         return ResponseEntity.ok(averageScore);
     }
 
+    @StatementBudget(1)
     @GetMapping("/quiz-statistics")
     public ResponseEntity<List<Map<String, Object>>> getQuizStatistics() {
         logger.debug("Fetching quiz statistics");
         List<Map<String, Object>> statistics = quizResultService.getQuizStatistics();
         return ResponseEntity.ok(statistics);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/quiz-statistics/{quizId}/distribution")
+    public ResponseEntity<ScoreDistribution> getScoreDistribution(@PathVariable Long quizId,
+                                                                  @RequestParam(defaultValue = "10") int bucketWidth) {
+        logger.debug("Fetching score distribution for quiz ID: {}", quizId);
+        if (bucketWidth < 1 || bucketWidth > 100) {
+            logger.warn("Invalid bucket width: {}", bucketWidth);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(quizStatisticsService.getScoreDistribution(quizId, bucketWidth));
+    }
+
+    @PostMapping("/quiz-statistics/rebuild")
+    public ResponseEntity<Void> rebuildQuizStatistics() {
+        logger.debug("Requesting quiz statistics rebuild");
+        if (!quizStatisticsService.scheduleRebuild()) {
+            logger.warn("Quiz statistics rebuild already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        logger.info("Quiz statistics rebuild scheduled");
+        return ResponseEntity.accepted().build();
+    }
+
+    private static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+}
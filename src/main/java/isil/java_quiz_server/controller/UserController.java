@@ -1,5 +1,7 @@
 package isil.java_quiz_server.controller;
 
+import isil.java_quiz_server.config.RateLimitFilter;
+import isil.java_quiz_server.config.StatementBudget;
 import isil.java_quiz_server.modal.User;
 import isil.java_quiz_server.repository.UserRepository;
 import isil.java_quiz_server.requests.LoginRequest;
@@ -8,6 +10,7 @@ import isil.java_quiz_server.service.LoginService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +26,8 @@ public class UserController {
     private UserRepository userRepository;
     @Autowired
     private LoginService loginService;
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
 
     @PostMapping("/register")
     public ResponseEntity<User> newUser(@RequestBody User newUser) {
@@ -32,7 +37,7 @@ public class UserController {
                 newUser.getUsername(), newUser.getPassword() != null ? "[provided]" : "null");
             return ResponseEntity.badRequest().build();
         }
-        User savedUser = userRepository.save(newUser);
+        User savedUser = userRepository.save(loginService.prepareNewUser(newUser));
         logger.info("User registered: id={}", savedUser.getId());
         return ResponseEntity.ok(savedUser);
     }
@@ -44,12 +49,21 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    // The user lookup and, once per user, the upgraded password hash
+    @StatementBudget(2)
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> loginUser(@RequestBody LoginRequest loginRequest) {
         logger.debug("Attempting login for username: {}", loginRequest.getUsername());
+        long waitNanos = rateLimitFilter.acquireForUsername(RateLimitFilter.Endpoint.LOGIN, loginRequest.getUsername());
+        if (waitNanos > 0) {
+            logger.warn("Too many login attempts for username: {}", loginRequest.getUsername());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(RateLimitFilter.retryAfterSeconds(waitNanos)))
+                    .build();
+        }
         LoginResponse loginResponse = loginService.authenticateUser(loginRequest);
         if (loginResponse.isAuthenticated()) {
-            logger.info("Login successful for username: {}", loginRequest.getUsername());
+            logger.debug("Login successful for username: {}", loginRequest.getUsername());
             return ResponseEntity.ok(loginResponse);
         } else {
             logger.warn("Login failed for username: {}", loginRequest.getUsername());
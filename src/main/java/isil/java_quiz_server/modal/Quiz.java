@@ -15,9 +15,13 @@ public class Quiz {
     private String title;
     @Column(nullable = false)
     private String username;
+    // Attempts allowed per user; null means unlimited
+    @Column(name = "max_attempts")
+    private Integer maxAttempts;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "quiz_id")
+    @OrderBy("id")
     private List<Question> questions = new ArrayList<>();
 
     public Long getId() {
@@ -44,6 +48,14 @@ public class Quiz {
         this.username = username;
     }
 
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
     public List<Question> getQuestions() {
         return questions;
     }
@@ -4,12 +4,24 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "quiz_results")
+@Table(name = "quiz_results", indexes = {
+        // user + quiz lookups (attempts, best score); score makes it covering for MAX(score)
+        @Index(name = "idx_quiz_results_user_quiz", columnList = "user_id, quiz_id, score"),
+        // per-quiz listings ordered by score and AVG(percentage) without touching the rows
+        @Index(name = "idx_quiz_results_quiz_score", columnList = "quiz_id, score, percentage"),
+        @Index(name = "idx_quiz_results_username", columnList = "username"),
+        // recent results, date ranges and the newest-first keyset pages; descending so the
+        // pages read it forwards (H2 cannot scan an index backwards for ORDER BY ... DESC)
+        @Index(name = "idx_quiz_results_completed_at", columnList = "completed_at DESC, id DESC")
+})
 public class QuizResult {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "submission_id", unique = true, length = 36)
+    private String submissionId;
+
     @Column(name = "user_id")
     private Long userId;
 
@@ -55,6 +67,8 @@ public class QuizResult {
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
+    public String getSubmissionId() { return submissionId; }
+    public void setSubmissionId(String submissionId) { this.submissionId = submissionId; }
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
     public String getUsername() { return username; }
@@ -88,6 +102,7 @@ public class QuizResult {
     public String toString() {
         return "QuizResult{" +
                 "id=" + id +
+                ", submissionId='" + submissionId + '\'' +
                 ", userId=" + userId +
                 ", username='" + username + '\'' +
                 ", quizId=" + quizId +
@@ -0,0 +1,59 @@
+package isil.java_quiz_server.modal;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Number of results of a quiz whose percentage falls in {@code [bucket, bucket + 1)};
+ * bucket 100 holds perfect scores.
+ */
+@Entity
+@Table(name = "quiz_score_histogram")
+@IdClass(QuizScoreBucket.Key.class)
+public class QuizScoreBucket {
+    @Id
+    @Column(name = "quiz_id")
+    private Long quizId;
+
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+
+    @Column(name = "attempts", nullable = false)
+    private long attempts;
+
+    public Long getQuizId() { return quizId; }
+    public void setQuizId(Long quizId) { this.quizId = quizId; }
+    public Integer getBucket() { return bucket; }
+    public void setBucket(Integer bucket) { this.bucket = bucket; }
+    public long getAttempts() { return attempts; }
+    public void setAttempts(long attempts) { this.attempts = attempts; }
+
+    public static class Key implements Serializable {
+        private Long quizId;
+        private Integer bucket;
+
+        public Key() {
+        }
+
+        public Key(Long quizId, Integer bucket) {
+            this.quizId = quizId;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(quizId, key.quizId) && Objects.equals(bucket, key.bucket);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(quizId, bucket);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package isil.java_quiz_server.modal;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "quiz_statistics")
+public class QuizStatistics {
+    @Id
+    @Column(name = "quiz_id")
+    private Long quizId;
+
+    @Column(name = "quiz_title")
+    private String quizTitle;
+
+    @Column(name = "attempts", nullable = false)
+    private long attempts;
+
+    // Attempts with a percentage, which the sums and averages are over; null on rows
+    // created before it was kept, until the next rebuild
+    @Column(name = "percentage_count")
+    private Long percentageCount;
+
+    @Column(name = "percentage_sum", nullable = false)
+    private double percentageSum;
+
+    @Column(name = "percentage_square_sum", nullable = false)
+    private double percentageSquareSum;
+
+    @Column(name = "min_score")
+    private Integer minScore;
+
+    @Column(name = "max_score")
+    private Integer maxScore;
+
+    public Long getQuizId() { return quizId; }
+    public void setQuizId(Long quizId) { this.quizId = quizId; }
+    public String getQuizTitle() { return quizTitle; }
+    public void setQuizTitle(String quizTitle) { this.quizTitle = quizTitle; }
+    public long getAttempts() { return attempts; }
+    public void setAttempts(long attempts) { this.attempts = attempts; }
+    public Long getPercentageCount() { return percentageCount; }
+    public void setPercentageCount(Long percentageCount) { this.percentageCount = percentageCount; }
+    public double getPercentageSum() { return percentageSum; }
+    public void setPercentageSum(double percentageSum) { this.percentageSum = percentageSum; }
+    public double getPercentageSquareSum() { return percentageSquareSum; }
+    public void setPercentageSquareSum(double percentageSquareSum) { this.percentageSquareSum = percentageSquareSum; }
+    public Integer getMinScore() { return minScore; }
+    public void setMinScore(Integer minScore) { this.minScore = minScore; }
+    public Integer getMaxScore() { return maxScore; }
+    public void setMaxScore(Integer maxScore) { this.maxScore = maxScore; }
+
+    public double getAveragePercentage() {
+        long scored = getScoredAttempts();
+        return scored > 0 ? percentageSum / scored : 0.0;
+    }
+
+    public double getPercentageStandardDeviation() {
+        long scored = getScoredAttempts();
+        if (scored == 0) {
+            return 0.0;
+        }
+        double mean = percentageSum / scored;
+        return Math.sqrt(Math.max(0.0, percentageSquareSum / scored - mean * mean));
+    }
+
+    private long getScoredAttempts() {
+        return percentageCount != null ? percentageCount : attempts;
+    }
+}
@@ -1,5 +1,6 @@
 package isil.java_quiz_server.modal;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 @Entity
@@ -12,6 +13,8 @@ public class User {
     @Column(unique = true)
     private String username;
 
+    // Accepted on registration but never written out, not even as a hash
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String email;
     private String phone;
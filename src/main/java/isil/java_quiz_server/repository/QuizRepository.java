@@ -1,7 +1,86 @@
 package isil.java_quiz_server.repository;
 
+import isil.java_quiz_server.modal.Question;
 import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.response.QuizSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT q.id FROM Quiz q")
+    List<Long> findAllIds();
+
+    @Query("SELECT DISTINCT q FROM Quiz q LEFT JOIN FETCH q.questions ORDER BY q.id")
+    List<Quiz> findAllWithQuestions();
+
+    @Query("SELECT DISTINCT qu FROM Quiz q JOIN q.questions qu LEFT JOIN FETCH qu.options")
+    List<Question> findAllQuestionsWithOptions();
+
+    /**
+     * Loads the whole quiz catalog (quizzes, questions and options) in two queries,
+     * however many quizzes there are. Questions and options are both bags, so they
+     * cannot be fetch-joined in one query; the second query initializes the options
+     * of the questions already managed by the first one.
+     */
+    @Transactional(readOnly = true)
+    default List<Quiz> findCatalog() {
+        List<Quiz> quizzes = findAllWithQuestions();
+        if (!quizzes.isEmpty()) {
+            findAllQuestionsWithOptions();
+        }
+        return quizzes;
+    }
+
+    @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.questions WHERE q.id = :id")
+    Optional<Quiz> findWithQuestionsById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT qu FROM Quiz q JOIN q.questions qu LEFT JOIN FETCH qu.options WHERE q.id = :id")
+    List<Question> findQuestionsWithOptionsByQuizId(@Param("id") Long id);
+
+    /**
+     * Loads a single quiz with its questions and options fully initialized, so the
+     * result can be used after the transaction has ended.
+     */
+    @Transactional(readOnly = true)
+    default Optional<Quiz> findGraphById(Long id) {
+        Optional<Quiz> quiz = findWithQuestionsById(id);
+        if (quiz.isPresent() && !quiz.get().getQuestions().isEmpty()) {
+            findQuestionsWithOptionsByQuizId(id);
+        }
+        return quiz;
+    }
+
+    @Query("SELECT q.id FROM Quiz q WHERE q.id > :afterId ORDER BY q.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT DISTINCT q FROM Quiz q LEFT JOIN FETCH q.questions WHERE q.id IN :ids ORDER BY q.id")
+    List<Quiz> findWithQuestionsByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT DISTINCT qu FROM Quiz q JOIN q.questions qu LEFT JOIN FETCH qu.options WHERE q.id IN :ids")
+    List<Question> findQuestionsWithOptionsByQuizIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Loads the quizzes with the given ids, ordered by id, with questions and options
+     * initialized, in two queries however many ids there are.
+     */
+    @Transactional(readOnly = true)
+    default List<Quiz> findGraphsByIdIn(List<Long> ids) {
+        List<Quiz> quizzes = findWithQuestionsByIdIn(ids);
+        if (!quizzes.isEmpty()) {
+            findQuestionsWithOptionsByQuizIdIn(ids);
+        }
+        return quizzes;
+    }
+
+    @Query("SELECT new isil.java_quiz_server.response.QuizSummary(q.id, q.title, q.username, COUNT(qu)) " +
+           "FROM Quiz q LEFT JOIN q.questions qu WHERE q.id > :afterId " +
+           "GROUP BY q.id, q.title, q.username ORDER BY q.id")
+    List<QuizSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+}
@@ -1,13 +1,21 @@
 package isil.java_quiz_server.repository;
 
 import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.response.AttemptSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface QuizResultRepository extends JpaRepository<QuizResult, Long> {
@@ -16,20 +24,82 @@ public interface QuizResultRepository extends JpaRepository<QuizResult, Long> {
     List<QuizResult> findByQuizId(Long quizId);
     List<QuizResult> findByUserIdAndQuizId(Long userId, Long quizId);
     List<QuizResult> findByUsername(String username);
-    List<QuizResult> findAllByOrderByCompletedAtDesc();
-    List<QuizResult> findByQuizIdOrderByScoreDesc(Long quizId);
+    List<QuizResult> findAllByOrderByCompletedAtDescIdDesc();
+    List<QuizResult> findByQuizIdOrderByScoreDescIdDesc(Long quizId);
     List<QuizResult> findByCompletedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    // Keyset pages ordered by id; pass the last id of the previous page as afterId
+    List<QuizResult> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Limit limit);
+    List<QuizResult> findByUsernameAndIdGreaterThanOrderByIdAsc(String username, Long afterId, Limit limit);
+
+    // Keyset pages newest first, like the unpaged listings; pass the completedAt and id of
+    // the last row of the previous page. All read idx_quiz_results_completed_at backwards.
+    List<QuizResult> findAllByOrderByCompletedAtDescIdDesc(Limit limit);
+    List<QuizResult> findByCompletedAtGreaterThanEqualOrderByCompletedAtDescIdDesc(LocalDateTime since, Limit limit);
+
+    @Query("SELECT qr FROM QuizResult qr " +
+           "WHERE qr.completedAt < :completedAt OR (qr.completedAt = :completedAt AND qr.id < :id) " +
+           "ORDER BY qr.completedAt DESC, qr.id DESC")
+    List<QuizResult> findCompletedBefore(@Param("completedAt") LocalDateTime completedAt, @Param("id") Long id,
+                                         Limit limit);
+
+    @Query("SELECT qr FROM QuizResult qr WHERE qr.completedAt >= :since " +
+           "AND (qr.completedAt < :completedAt OR (qr.completedAt = :completedAt AND qr.id < :id)) " +
+           "ORDER BY qr.completedAt DESC, qr.id DESC")
+    List<QuizResult> findCompletedSinceAndBefore(@Param("since") LocalDateTime since,
+                                                 @Param("completedAt") LocalDateTime completedAt,
+                                                 @Param("id") Long id, Limit limit);
+
+    // Streams must be consumed inside a transaction. On MySQL the driver only honours the
+    // fetch size with useCursorFetch=true on the JDBC URL; otherwise it buffers the result set.
+    // Keyset pages of a quiz's results, highest score first like the unpaged listing;
+    // pass the score and id of the last row of the previous page
+    List<QuizResult> findByQuizIdOrderByScoreDescIdDesc(Long quizId, Limit limit);
+
+    @Query("SELECT qr FROM QuizResult qr WHERE qr.quizId = :quizId " +
+           "AND (qr.score < :score OR (qr.score = :score AND qr.id < :id)) " +
+           "ORDER BY qr.score DESC, qr.id DESC")
+    List<QuizResult> findByQuizIdScoredBelow(@Param("quizId") Long quizId, @Param("score") Integer score,
+                                             @Param("id") Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT qr FROM QuizResult qr ORDER BY qr.id")
+    Stream<QuizResult> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT qr FROM QuizResult qr WHERE qr.quizId = :quizId ORDER BY qr.id")
+    Stream<QuizResult> streamByQuizId(@Param("quizId") Long quizId);
+
+    // Each user's best attempt at the quiz, ranked as the leaderboards rank them, so a
+    // board is built without loading every attempt
+    @Query(value = "SELECT best.id, best.submission_id, best.user_id, best.username, best.quiz_id, best.quiz_title, " +
+            "best.score, best.total_questions, best.percentage, best.completed_at, best.time_taken_seconds " +
+            "FROM (SELECT qr.*, ROW_NUMBER() OVER (PARTITION BY qr.user_id ORDER BY qr.score IS NULL, " +
+            "qr.score DESC, qr.completed_at IS NULL, qr.completed_at, qr.id) AS attempt_rank " +
+            "FROM quiz_results qr WHERE qr.quiz_id = :quizId AND qr.user_id IS NOT NULL) best " +
+            "WHERE best.attempt_rank = 1", nativeQuery = true)
+    List<QuizResult> findBestAttemptPerUser(@Param("quizId") Long quizId);
+
+    Optional<QuizResult> findFirstByUserIdAndQuizIdOrderByScoreDescIdAsc(Long userId, Long quizId);
+
+    // One aggregate row, answered from idx_quiz_results_user_quiz instead of loading the attempts
+    @Query("SELECT new isil.java_quiz_server.response.AttemptSummary(:userId, :quizId, COUNT(qr), MAX(qr.score), "
+            + "MAX(qr.completedAt)) FROM QuizResult qr WHERE qr.userId = :userId AND qr.quizId = :quizId")
+    AttemptSummary summarizeAttempts(@Param("userId") Long userId, @Param("quizId") Long quizId);
+
+    @Query("SELECT qr.submissionId FROM QuizResult qr WHERE qr.submissionId IN :submissionIds")
+    List<String> findExistingSubmissionIds(@Param("submissionIds") Collection<String> submissionIds);
+
     @Query("SELECT AVG(qr.percentage) FROM QuizResult qr WHERE qr.quizId = :quizId")
     Double getAverageScoreForQuiz(@Param("quizId") Long quizId);
 
-    @Query("SELECT qr FROM QuizResult qr WHERE qr.quizId = :quizId ORDER BY qr.score DESC, qr.completedAt ASC")
-    List<QuizResult> getTopPerformersForQuiz(@Param("quizId") Long quizId);
-
-    @Query("SELECT qr FROM QuizResult qr WHERE qr.completedAt >= :thirtyDaysAgo ORDER BY qr.completedAt DESC")
+    @Query("SELECT qr FROM QuizResult qr WHERE qr.completedAt >= :thirtyDaysAgo " +
+           "ORDER BY qr.completedAt DESC, qr.id DESC")
     List<QuizResult> getRecentResults(@Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
-
-    @Query("SELECT qr.quizId, qr.quizTitle, COUNT(qr), AVG(qr.percentage), MAX(qr.score), MIN(qr.score) " +
-           "FROM QuizResult qr GROUP BY qr.quizId, qr.quizTitle")
-    List<Object[]> getQuizStatistics();
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package isil.java_quiz_server.repository;
+
+import isil.java_quiz_server.modal.QuizScoreBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface QuizScoreBucketRepository extends JpaRepository<QuizScoreBucket, QuizScoreBucket.Key> {
+
+    List<QuizScoreBucket> findByQuizId(Long quizId);
+
+    /**
+     * Adds attempts to a bucket, creating its row if this is the bucket's first result.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO quiz_score_histogram (quiz_id, bucket, attempts) VALUES (:quizId, :bucket, :attempts) " +
+                   "ON DUPLICATE KEY UPDATE attempts = attempts + :attempts",
+           nativeQuery = true)
+    void addAttempts(@Param("quizId") Long quizId, @Param("bucket") int bucket, @Param("attempts") long attempts);
+
+    @Modifying
+    @Query(value = "INSERT INTO quiz_score_histogram (quiz_id, bucket, attempts) " +
+                   "SELECT quiz_id, LEAST(GREATEST(FLOOR(COALESCE(percentage, 0)), 0), 100), COUNT(*) " +
+                   "FROM quiz_results WHERE quiz_id IS NOT NULL " +
+                   "GROUP BY quiz_id, LEAST(GREATEST(FLOOR(COALESCE(percentage, 0)), 0), 100)",
+           nativeQuery = true)
+    int insertFromResults();
+}
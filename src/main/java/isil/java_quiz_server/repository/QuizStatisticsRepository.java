@@ -0,0 +1,49 @@
+package isil.java_quiz_server.repository;
+
+import isil.java_quiz_server.modal.QuizStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface QuizStatisticsRepository extends JpaRepository<QuizStatistics, Long> {
+
+    /**
+     * Folds a batch of new results for one quiz into its aggregate row in a single
+     * statement, creating the row for the quiz's first results. The insert runs in the
+     * caller's transaction, so it needs no second connection.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO quiz_statistics (quiz_id, quiz_title, attempts, percentage_count, percentage_sum, " +
+                   "percentage_square_sum, min_score, max_score) " +
+                   "VALUES (:quizId, :quizTitle, :attempts, :percentageCount, :percentageSum, :percentageSquareSum, " +
+                   ":minScore, :maxScore) " +
+                   "ON DUPLICATE KEY UPDATE quiz_title = COALESCE(:quizTitle, quiz_title), " +
+                   "attempts = attempts + :attempts, " +
+                   "percentage_count = percentage_count + :percentageCount, " +
+                   "percentage_sum = percentage_sum + :percentageSum, " +
+                   "percentage_square_sum = percentage_square_sum + :percentageSquareSum, " +
+                   "min_score = COALESCE(LEAST(min_score, :minScore), min_score, :minScore), " +
+                   "max_score = COALESCE(GREATEST(max_score, :maxScore), max_score, :maxScore)",
+           nativeQuery = true)
+    void addResults(@Param("quizId") Long quizId, @Param("quizTitle") String quizTitle,
+                    @Param("attempts") long attempts, @Param("percentageCount") long percentageCount,
+                    @Param("percentageSum") double percentageSum,
+                    @Param("percentageSquareSum") double percentageSquareSum,
+                    @Param("minScore") Integer minScore, @Param("maxScore") Integer maxScore);
+
+    @Modifying
+    @Query(value = "INSERT INTO quiz_statistics (quiz_id, quiz_title, attempts, percentage_count, percentage_sum, " +
+                   "percentage_square_sum, min_score, max_score) " +
+                   "SELECT quiz_id, MAX(quiz_title), COUNT(*), COUNT(percentage), COALESCE(SUM(percentage), 0), " +
+                   "COALESCE(SUM(percentage * percentage), 0), MIN(score), MAX(score) " +
+                   "FROM quiz_results WHERE quiz_id IS NOT NULL GROUP BY quiz_id",
+           nativeQuery = true)
+    int insertFromResults();
+
+    /**
+     * True while rows written before the percentage count was kept remain; their
+     * averages still divide by every attempt until the next rebuild.
+     */
+    boolean existsByPercentageCountIsNull();
+}
@@ -0,0 +1,40 @@
+package isil.java_quiz_server.requests;
+
+public class QuizSubmission {
+    private Long userId;
+    private String username;
+    private String[] answers;
+    private Integer timeTakenSeconds;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String[] getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(String[] answers) {
+        this.answers = answers;
+    }
+
+    public Integer getTimeTakenSeconds() {
+        return timeTakenSeconds;
+    }
+
+    public void setTimeTakenSeconds(Integer timeTakenSeconds) {
+        this.timeTakenSeconds = timeTakenSeconds;
+    }
+}
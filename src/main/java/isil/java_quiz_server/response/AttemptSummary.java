@@ -0,0 +1,66 @@
+package isil.java_quiz_server.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's attempts at one quiz. {@code maxAttempts} and {@code remainingAttempts} are
+ * null when the quiz has no attempt limit.
+ */
+public class AttemptSummary {
+    private final Long userId;
+    private final Long quizId;
+    private final long attempts;
+    private final Integer bestScore;
+    private final LocalDateTime lastAttemptAt;
+    private final Integer maxAttempts;
+
+    public AttemptSummary(Long userId, Long quizId, long attempts, Integer bestScore, LocalDateTime lastAttemptAt) {
+        this(userId, quizId, attempts, bestScore, lastAttemptAt, null);
+    }
+
+    private AttemptSummary(Long userId, Long quizId, long attempts, Integer bestScore, LocalDateTime lastAttemptAt,
+                           Integer maxAttempts) {
+        this.userId = userId;
+        this.quizId = quizId;
+        this.attempts = attempts;
+        this.bestScore = bestScore;
+        this.lastAttemptAt = lastAttemptAt;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public AttemptSummary withMaxAttempts(Integer maxAttempts) {
+        return new AttemptSummary(userId, quizId, attempts, bestScore, lastAttemptAt, maxAttempts);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public Integer getBestScore() {
+        return bestScore;
+    }
+
+    public LocalDateTime getLastAttemptAt() {
+        return lastAttemptAt;
+    }
+
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Integer getRemainingAttempts() {
+        return maxAttempts == null ? null : (int) Math.max(0, maxAttempts - attempts);
+    }
+
+    public boolean isLimitReached() {
+        return maxAttempts != null && attempts >= maxAttempts;
+    }
+}
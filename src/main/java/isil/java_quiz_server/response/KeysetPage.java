@@ -0,0 +1,57 @@
+package isil.java_quiz_server.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextAfterId} is the id to pass as
+ * {@code afterId} to fetch the following page, or null when this is the last page.
+ * Listings ordered newest first page with an opaque cursor instead: {@code nextBefore},
+ * passed back as {@code before}.
+ */
+public class KeysetPage<T> {
+    private final List<T> items;
+    private final Long nextAfterId;
+    private final String nextBefore;
+
+    public KeysetPage(List<T> items, Long nextAfterId) {
+        this(items, nextAfterId, null);
+    }
+
+    private KeysetPage(List<T> items, Long nextAfterId, String nextBefore) {
+        this.items = items;
+        this.nextAfterId = nextAfterId;
+        this.nextBefore = nextBefore;
+    }
+
+    /**
+     * Wraps a page fetched with a limit of {@code pageSize}; a full page means there may be more.
+     */
+    public static <T> KeysetPage<T> of(List<T> items, int pageSize, Function<T, Long> idOf) {
+        Long nextAfterId = items.size() == pageSize ? idOf.apply(items.get(pageSize - 1)) : null;
+        return new KeysetPage<>(items, nextAfterId);
+    }
+
+    /**
+     * Wraps a page of a newest-first listing, taking the cursor from its last item.
+     */
+    public static <T> KeysetPage<T> before(List<T> items, int pageSize, Function<T, String> cursorOf) {
+        String nextBefore = items.size() == pageSize ? cursorOf.apply(items.get(pageSize - 1)) : null;
+        return new KeysetPage<>(items, null, nextBefore);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getNextBefore() {
+        return nextBefore;
+    }
+}
@@ -0,0 +1,42 @@
+package isil.java_quiz_server.response;
+
+import isil.java_quiz_server.modal.QuizResult;
+
+public class LeaderboardRank {
+    private final Long quizId;
+    private final Long userId;
+    private final int rank;
+    private final int rankedUsers;
+    private final QuizResult bestResult;
+
+    public LeaderboardRank(Long quizId, Long userId, int rank, int rankedUsers, QuizResult bestResult) {
+        this.quizId = quizId;
+        this.userId = userId;
+        this.rank = rank;
+        this.rankedUsers = rankedUsers;
+        this.bestResult = bestResult;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * One-based position of the user's best attempt.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    public int getRankedUsers() {
+        return rankedUsers;
+    }
+
+    public QuizResult getBestResult() {
+        return bestResult;
+    }
+}
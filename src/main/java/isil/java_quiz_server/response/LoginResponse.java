@@ -1,21 +1,76 @@
 package isil.java_quiz_server.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import isil.java_quiz_server.modal.User;
 
+/**
+ * The outcome of a login. A successful one carries the session token and only the
+ * claims the client needs from the account, the same ones the token holds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LoginResponse {
-    private User user;
-    private boolean isAuthenticated;
+    private final Account user;
+    private final boolean isAuthenticated;
+    private String token;
+    private Long expiresInSeconds;
 
     public LoginResponse(User user, boolean isAuthenticated) {
-        this.user = user;
+        this.user = user != null ? new Account(user) : null;
         this.isAuthenticated = isAuthenticated;
     }
 
-    public User getUser() {
+    public LoginResponse(User user, String token, long expiresInSeconds) {
+        this(user, true);
+        this.token = token;
+        this.expiresInSeconds = expiresInSeconds;
+    }
+
+    public Account getUser() {
         return user;
     }
 
     public boolean isAuthenticated() {
         return isAuthenticated;
     }
-}
\ No newline at end of file
+
+    /**
+     * Signed session token to send back as {@code Authorization: Bearer <token>}.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    public Long getExpiresInSeconds() {
+        return expiresInSeconds;
+    }
+
+    /**
+     * The logged-in user's id, username and teacher flag, under the names the full
+     * user object used.
+     */
+    public static final class Account {
+        private final Long id;
+        private final String username;
+        private final boolean teacher;
+
+        private Account(User user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.teacher = Boolean.TRUE.equals(user.getIs_teacher());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        @JsonProperty("is_teacher")
+        public boolean isTeacher() {
+            return teacher;
+        }
+    }
+}
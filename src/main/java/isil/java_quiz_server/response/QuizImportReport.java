@@ -0,0 +1,66 @@
+package isil.java_quiz_server.response;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk quiz import. {@code records} counts every record read, whether it
+ * was imported or not. {@code errors} lists the first failed records; {@code complete} is
+ * false when the stream could not be read to its end, in which case the last error says
+ * where reading stopped.
+ */
+public class QuizImportReport {
+    private final long records;
+    private final long imported;
+    private final long failed;
+    private final boolean complete;
+    private final List<RecordError> errors;
+
+    public QuizImportReport(long records, long imported, long failed, boolean complete, List<RecordError> errors) {
+        this.records = records;
+        this.imported = imported;
+        this.failed = failed;
+        this.complete = complete;
+        this.errors = errors;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public List<RecordError> getErrors() {
+        return errors;
+    }
+
+    public static class RecordError {
+        private final long record;
+        private final String message;
+
+        /**
+         * {@code record} is the 1-based position of the record in the stream.
+         */
+        public RecordError(long record, String message) {
+            this.record = record;
+            this.message = message;
+        }
+
+        public long getRecord() {
+            return record;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
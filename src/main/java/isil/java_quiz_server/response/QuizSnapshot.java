@@ -0,0 +1,112 @@
+package isil.java_quiz_server.response;
+
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of a {@link Quiz} graph, safe to share between requests. Serializes
+ * to the same JSON shape as the entity.
+ */
+public final class QuizSnapshot {
+    private final Long id;
+    private final String title;
+    private final String username;
+    private final Integer maxAttempts;
+    private final List<QuestionSnapshot> questions;
+
+    private QuizSnapshot(Long id, String title, String username, Integer maxAttempts,
+                         List<QuestionSnapshot> questions) {
+        this.id = id;
+        this.title = title;
+        this.username = username;
+        this.maxAttempts = maxAttempts;
+        this.questions = questions;
+    }
+
+    public static QuizSnapshot of(Quiz quiz) {
+        List<QuestionSnapshot> questions = new ArrayList<>();
+        if (quiz.getQuestions() != null) {
+            for (Question question : quiz.getQuestions()) {
+                questions.add(new QuestionSnapshot(question.getId(), question.getText(),
+                        question.getOptions() != null
+                                ? Collections.unmodifiableList(new ArrayList<>(question.getOptions()))
+                                : List.of(),
+                        question.getCorrectOption()));
+            }
+        }
+        return new QuizSnapshot(quiz.getId(), quiz.getTitle(), quiz.getUsername(), quiz.getMaxAttempts(),
+                Collections.unmodifiableList(questions));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public List<QuestionSnapshot> getQuestions() {
+        return questions;
+    }
+
+    /**
+     * Rough retained size in bytes, used to weigh entries against the cache byte budget.
+     */
+    public int estimatedSize() {
+        int size = 64 + sizeOf(title) + sizeOf(username);
+        for (QuestionSnapshot question : questions) {
+            size += 64 + sizeOf(question.text) + sizeOf(question.correctOption);
+            for (String option : question.options) {
+                size += 16 + sizeOf(option);
+            }
+        }
+        return size;
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : 40 + value.length() * 2;
+    }
+
+    public static final class QuestionSnapshot {
+        private final Long id;
+        private final String text;
+        private final List<String> options;
+        private final String correctOption;
+
+        private QuestionSnapshot(Long id, String text, List<String> options, String correctOption) {
+            this.id = id;
+            this.text = text;
+            this.options = options;
+            this.correctOption = correctOption;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public List<String> getOptions() {
+            return options;
+        }
+
+        public String getCorrectOption() {
+            return correctOption;
+        }
+    }
+}
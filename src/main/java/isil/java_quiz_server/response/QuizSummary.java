@@ -0,0 +1,31 @@
+package isil.java_quiz_server.response;
+
+public class QuizSummary {
+    private final Long id;
+    private final String title;
+    private final String username;
+    private final Long questionCount;
+
+    public QuizSummary(Long id, String title, String username, Long questionCount) {
+        this.id = id;
+        this.title = title;
+        this.username = username;
+        this.questionCount = questionCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getQuestionCount() {
+        return questionCount;
+    }
+}
@@ -0,0 +1,61 @@
+package isil.java_quiz_server.response;
+
+import java.util.List;
+import java.util.Map;
+
+public class ScoreDistribution {
+    private final Long quizId;
+    private final long totalAttempts;
+    private final Map<String, Integer> quantiles;
+    private final List<Bucket> buckets;
+
+    public ScoreDistribution(Long quizId, long totalAttempts, Map<String, Integer> quantiles, List<Bucket> buckets) {
+        this.quizId = quizId;
+        this.totalAttempts = totalAttempts;
+        this.quantiles = quantiles;
+        this.buckets = buckets;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public long getTotalAttempts() {
+        return totalAttempts;
+    }
+
+    public Map<String, Integer> getQuantiles() {
+        return quantiles;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public static class Bucket {
+        private final int fromPercentage;
+        private final int toPercentage;
+        private final long count;
+
+        public Bucket(int fromPercentage, int toPercentage, long count) {
+            this.fromPercentage = fromPercentage;
+            this.toPercentage = toPercentage;
+            this.count = count;
+        }
+
+        public int getFromPercentage() {
+            return fromPercentage;
+        }
+
+        /**
+         * Inclusive upper bound of the bucket.
+         */
+        public int getToPercentage() {
+            return toPercentage;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
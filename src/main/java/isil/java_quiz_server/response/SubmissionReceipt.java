@@ -0,0 +1,21 @@
+package isil.java_quiz_server.response;
+
+import java.time.LocalDateTime;
+
+public class SubmissionReceipt {
+    private final String receipt;
+    private final LocalDateTime acceptedAt;
+
+    public SubmissionReceipt(String receipt, LocalDateTime acceptedAt) {
+        this.receipt = receipt;
+        this.acceptedAt = acceptedAt;
+    }
+
+    public String getReceipt() {
+        return receipt;
+    }
+
+    public LocalDateTime getAcceptedAt() {
+        return acceptedAt;
+    }
+}
@@ -0,0 +1,50 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.response.QuizSnapshot;
+
+import java.util.List;
+
+/**
+ * Correct option of every question of a quiz, in question order. Options are graded
+ * by text rather than position because the option list has no persistent order.
+ */
+public final class AnswerKey {
+    private final String[] correctOptions;
+
+    private AnswerKey(String[] correctOptions) {
+        this.correctOptions = correctOptions;
+    }
+
+    public static AnswerKey of(QuizSnapshot quiz) {
+        List<QuizSnapshot.QuestionSnapshot> questions = quiz.getQuestions();
+        String[] correctOptions = new String[questions.size()];
+        for (int i = 0; i < correctOptions.length; i++) {
+            correctOptions[i] = questions.get(i).getCorrectOption();
+        }
+        return new AnswerKey(correctOptions);
+    }
+
+    public int getQuestionCount() {
+        return correctOptions.length;
+    }
+
+    /**
+     * Counts the correct answers. {@code answers[i]} is the option chosen for question
+     * {@code i}; missing or null entries count as unanswered.
+     */
+    public int grade(String[] answers) {
+        int answered = Math.min(answers.length, correctOptions.length);
+        int score = 0;
+        for (int i = 0; i < answered; i++) {
+            if (answers[i] != null && answers[i].equals(correctOptions[i])) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    int estimatedSize() {
+        // The option strings themselves are shared with the snapshot
+        return 32 + correctOptions.length * 8;
+    }
+}
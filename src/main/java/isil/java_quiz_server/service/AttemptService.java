@@ -0,0 +1,216 @@
+package isil.java_quiz_server.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import isil.java_quiz_server.response.AttemptSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Attempt counts, best score and last attempt per (user, quiz), used to enforce quiz
+ * attempt limits. Summaries come from one aggregate query and are cached until a new
+ * result for the same pair commits.
+ *
+ * <p>Limits are enforced by reserving an attempt before the result is saved. A
+ * reservation counts against the limit until the result has committed, so submissions
+ * racing each other, or waiting in the write-behind buffer, cannot exceed it. The
+ * count is kept in this process only.
+ */
+@Service
+public class AttemptService {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptService.class);
+
+    private final QuizResultRepository quizResultRepository;
+    private final QuizService quizService;
+    private final LoadingCache<Key, AttemptSummary> summaries;
+    // Attempts reserved by submissions that have not committed yet, which the summaries cannot count
+    private final ConcurrentHashMap<Key, Integer> reserved = new ConcurrentHashMap<>();
+    // Locks rather than monitors, so a virtual thread loading a summary here does not pin its carrier
+    private final ReentrantLock[] reserveLocks = new ReentrantLock[64];
+
+    public AttemptService(QuizResultRepository quizResultRepository, QuizService quizService,
+                          @Value("${quiz.attempts.cache.max-size:100000}") long maxSize,
+                          @Value("${quiz.attempts.cache.expire-after-access:PT10M}") Duration expireAfterAccess) {
+        this.quizResultRepository = quizResultRepository;
+        this.quizService = quizService;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build(key -> quizResultRepository.summarizeAttempts(key.userId, key.quizId));
+        for (int i = 0; i < reserveLocks.length; i++) {
+            reserveLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The user's attempts at the quiz together with the quiz's limit, or null if the quiz
+     * does not exist.
+     */
+    public AttemptSummary getSummary(Long userId, Long quizId) {
+        Optional<CachedQuiz> quiz = quizService.getQuiz(quizId);
+        if (quiz.isEmpty()) {
+            return null;
+        }
+        return summaries.get(new Key(userId, quizId)).withMaxAttempts(quiz.get().getSnapshot().getMaxAttempts());
+    }
+
+    public long getAttemptCount(Long userId, Long quizId) {
+        return summaries.get(new Key(userId, quizId)).getAttempts();
+    }
+
+    /**
+     * Whether the committed and reserved attempts together have reached the quiz's
+     * limit, so that {@link #reserve} would refuse another.
+     */
+    public boolean isLimitReached(Long userId, Long quizId) {
+        Integer maxAttempts = maxAttemptsOf(quizId);
+        return maxAttempts != null && countAttempts(new Key(userId, quizId)) >= maxAttempts;
+    }
+
+    /**
+     * Reserves one attempt at the quiz for the user, or returns null if the committed and
+     * reserved attempts together have reached the quiz's limit. The reservation must be
+     * released once the result has committed, or when it will not be saved.
+     */
+    public Reservation reserve(Long userId, Long quizId) {
+        Integer maxAttempts = maxAttemptsOf(quizId);
+        if (maxAttempts == null) {
+            return Reservation.NONE;
+        }
+        Key key = new Key(userId, quizId);
+        ReentrantLock lock = reserveLocks[Math.floorMod(key.hashCode(), reserveLocks.length)];
+        lock.lock();
+        try {
+            if (countAttempts(key) >= maxAttempts) {
+                return null;
+            }
+            reserved.merge(key, 1, Integer::sum);
+            return new Reservation(this, key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached summaries the saved results affect, after commit when called inside
+     * a transaction. Invalidating rather than updating in place keeps a load that raced
+     * with the commit from counting the new row twice.
+     */
+    public void recordAll(Collection<QuizResult> quizResults) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll(quizResults);
+                }
+            });
+        } else {
+            invalidateAll(quizResults);
+        }
+    }
+
+    public void record(QuizResult quizResult) {
+        recordAll(List.of(quizResult));
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        CacheStats stats = summaries.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("entries", summaries.estimatedSize());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictions", stats.evictionCount());
+        return statistics;
+    }
+
+    private Integer maxAttemptsOf(Long quizId) {
+        return quizService.getQuiz(quizId).map(quiz -> quiz.getSnapshot().getMaxAttempts()).orElse(null);
+    }
+
+    private long countAttempts(Key key) {
+        return summaries.get(key).getAttempts() + reserved.getOrDefault(key, 0);
+    }
+
+    private void release(Key key) {
+        reserved.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void invalidateAll(Collection<QuizResult> quizResults) {
+        for (QuizResult result : quizResults) {
+            summaries.invalidate(new Key(result.getUserId(), result.getQuizId()));
+        }
+        logger.debug("Invalidated attempt summaries for {} results", quizResults.size());
+    }
+
+    /**
+     * An attempt held against a quiz's limit. Releasing it after the result's transaction
+     * has committed hands the count over to the refreshed summary; releasing twice does
+     * nothing.
+     */
+    public static final class Reservation {
+        // For quizzes without a limit, where there is nothing to hold
+        public static final Reservation NONE = new Reservation(null, null);
+
+        private final AttemptService attemptService;
+        private final Key key;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(AttemptService attemptService, Key key) {
+            this.attemptService = attemptService;
+            this.key = key;
+        }
+
+        public void release() {
+            if (key != null && released.compareAndSet(false, true)) {
+                attemptService.release(key);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final Long userId;
+        private final Long quizId;
+
+        private Key(Long userId, Long quizId) {
+            this.userId = userId;
+            this.quizId = quizId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(userId, other.userId) && Objects.equals(quizId, other.quizId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, quizId);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.response.QuizSnapshot;
+
+/**
+ * A cached quiz version: the immutable snapshot together with its answer key,
+ * its pre-rendered UTF-8 JSON and a strong ETag derived from that JSON. Binary
+ * encodings of the snapshot are added when first requested.
+ */
+public final class CachedQuiz {
+    private final QuizSnapshot snapshot;
+    private final AnswerKey answerKey;
+    private final byte[] json;
+    private final String etag;
+    private volatile byte[] cbor;
+    private volatile byte[] smile;
+
+    CachedQuiz(QuizSnapshot snapshot, byte[] json, String etag) {
+        this.snapshot = snapshot;
+        this.answerKey = AnswerKey.of(snapshot);
+        this.json = json;
+        this.etag = etag;
+    }
+
+    public QuizSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    /**
+     * The serialized quiz. Shared between requests, so callers must not modify it.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * The ETag of the quiz in the given format. Each encoding is a different
+     * representation of the same version, so each gets its own strong ETag.
+     */
+    public String getEtag(WireFormat format) {
+        if (format == WireFormat.JSON) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + format.name().toLowerCase() + "\"";
+    }
+
+    /**
+     * The serialized quiz in the given format, or null when that encoding has not been
+     * rendered yet. Shared between requests, so callers must not modify it.
+     */
+    byte[] getEncoded(WireFormat format) {
+        return switch (format) {
+            case JSON -> json;
+            case CBOR -> cbor;
+            case SMILE -> smile;
+        };
+    }
+
+    void setEncoded(WireFormat format, byte[] body) {
+        switch (format) {
+            case CBOR -> cbor = body;
+            case SMILE -> smile = body;
+            default -> throw new IllegalArgumentException("JSON is rendered with the snapshot");
+        }
+    }
+
+    int estimatedSize() {
+        byte[] cbor = this.cbor;
+        byte[] smile = this.smile;
+        return snapshot.estimatedSize() + answerKey.estimatedSize() + 16 + json.length + 40 + etag.length() * 2
+                + (cbor != null ? 16 + cbor.length : 0) + (smile != null ? 16 + smile.length : 0);
+    }
+}
@@ -0,0 +1,77 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking of one quiz, holding the best attempt of each user ordered by score
+ * (highest first), then completion time (earliest first), then result id.
+ */
+public class Leaderboard {
+
+    static final Comparator<QuizResult> RANKING = Comparator
+            .comparing(QuizResult::getScore, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+            .thenComparing(QuizResult::getCompletedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(QuizResult::getId, Comparator.nullsLast(Comparator.<Long>naturalOrder()))
+            .thenComparing(QuizResult::getUserId);
+
+    private final OrderStatisticTree<QuizResult> ranking = new OrderStatisticTree<>(RANKING);
+    private final Map<Long, QuizResult> bestByUser = new HashMap<>();
+
+    /**
+     * Records an attempt, replacing the user's entry if this attempt ranks higher.
+     */
+    public synchronized void offer(QuizResult result) {
+        if (result.getUserId() == null) {
+            return;
+        }
+        QuizResult current = bestByUser.get(result.getUserId());
+        if (current != null) {
+            if (RANKING.compare(result, current) >= 0) {
+                return;
+            }
+            ranking.remove(current);
+        }
+        ranking.add(result);
+        bestByUser.put(result.getUserId(), result);
+    }
+
+    public synchronized int size() {
+        return ranking.size();
+    }
+
+    public synchronized List<QuizResult> top(int limit) {
+        return ranking.range(0, Math.min(limit, ranking.size()));
+    }
+
+    /**
+     * Zero-based rank of the user's best attempt, or -1 if the user has none.
+     */
+    public synchronized int rankOf(Long userId) {
+        QuizResult best = bestByUser.get(userId);
+        return best == null ? -1 : ranking.rank(best);
+    }
+
+    public synchronized QuizResult bestOf(Long userId) {
+        return bestByUser.get(userId);
+    }
+
+    /**
+     * Up to {@code limit} entries centred on the user's rank, or an empty list if the
+     * user has no attempt.
+     */
+    public synchronized List<QuizResult> around(Long userId, int limit) {
+        int rank = rankOf(userId);
+        if (rank < 0) {
+            return Collections.emptyList();
+        }
+        int from = Math.max(0, Math.min(rank - limit / 2, ranking.size() - limit));
+        return ranking.range(from, Math.min(from + limit, ranking.size()));
+    }
+}
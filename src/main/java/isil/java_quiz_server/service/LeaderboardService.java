@@ -0,0 +1,146 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import isil.java_quiz_server.response.LeaderboardRank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory leaderboards, one per quiz. A quiz's board is loaded from the database the
+ * first time it is needed (or at startup) and then kept current from new submissions.
+ * Only quizzes with attempts keep a board, so asking for unknown quiz ids costs a query
+ * but no memory.
+ */
+@Service
+public class LeaderboardService {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private final QuizResultRepository quizResultRepository;
+    private final QuizRepository quizRepository;
+    private final boolean warmOnStartup;
+    // A board is published while it loads, so results committed meanwhile wait for it
+    // instead of being missed; the load itself runs outside the map's locks
+    private final Map<Long, CompletableFuture<Leaderboard>> leaderboards = new ConcurrentHashMap<>();
+
+    public LeaderboardService(QuizResultRepository quizResultRepository, QuizRepository quizRepository,
+                              @Value("${quiz.leaderboard.warm-on-startup:true}") boolean warmOnStartup) {
+        this.quizResultRepository = quizResultRepository;
+        this.quizRepository = quizRepository;
+        this.warmOnStartup = warmOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!warmOnStartup) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Long> quizIds = quizRepository.findAllIds();
+        for (Long quizId : quizIds) {
+            getLeaderboard(quizId);
+        }
+        logger.info("Warmed {} leaderboards in {} ms", quizIds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Leaderboard getLeaderboard(Long quizId) {
+        CompletableFuture<Leaderboard> leaderboard = leaderboards.get(quizId);
+        if (leaderboard == null) {
+            CompletableFuture<Leaderboard> loading = new CompletableFuture<>();
+            leaderboard = leaderboards.putIfAbsent(quizId, loading);
+            if (leaderboard == null) {
+                return load(quizId, loading);
+            }
+        }
+        return leaderboard.join();
+    }
+
+    /**
+     * Adds saved results to their boards, after commit when called inside a transaction.
+     */
+    public void recordAll(Collection<QuizResult> quizResults) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerAll(quizResults);
+                }
+            });
+        } else {
+            offerAll(quizResults);
+        }
+    }
+
+    public void record(QuizResult quizResult) {
+        recordAll(List.of(quizResult));
+    }
+
+    public List<QuizResult> getTop(Long quizId, int limit) {
+        return getLeaderboard(quizId).top(limit);
+    }
+
+    public List<QuizResult> getAround(Long quizId, Long userId, int limit) {
+        return getLeaderboard(quizId).around(userId, limit);
+    }
+
+    /**
+     * The user's one-based rank on the quiz, or null if the user has no attempt.
+     */
+    public LeaderboardRank getRank(Long quizId, Long userId) {
+        Leaderboard leaderboard = getLeaderboard(quizId);
+        synchronized (leaderboard) {
+            int rank = leaderboard.rankOf(userId);
+            if (rank < 0) {
+                return null;
+            }
+            return new LeaderboardRank(quizId, userId, rank + 1, leaderboard.size(), leaderboard.bestOf(userId));
+        }
+    }
+
+    int getBoardCount() {
+        return leaderboards.size();
+    }
+
+    private void offerAll(Collection<QuizResult> quizResults) {
+        for (QuizResult result : quizResults) {
+            CompletableFuture<Leaderboard> leaderboard = result.getQuizId() != null
+                    ? leaderboards.get(result.getQuizId()) : null;
+            // Without a board the result is picked up when one is loaded; a board loaded
+            // after the commit already contains it, and offering it again is a no-op
+            if (leaderboard != null) {
+                leaderboard.thenAccept(board -> board.offer(result));
+            }
+        }
+    }
+
+    private Leaderboard load(Long quizId, CompletableFuture<Leaderboard> loading) {
+        Leaderboard leaderboard = new Leaderboard();
+        try {
+            for (QuizResult result : quizResultRepository.findBestAttemptPerUser(quizId)) {
+                leaderboard.offer(result);
+            }
+        } catch (RuntimeException e) {
+            leaderboards.remove(quizId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        if (leaderboard.size() == 0) {
+            leaderboards.remove(quizId, loading);
+        }
+        loading.complete(leaderboard);
+        return leaderboard;
+    }
+}
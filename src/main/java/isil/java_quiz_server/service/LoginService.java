@@ -1,5 +1,7 @@
 package isil.java_quiz_server.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import isil.java_quiz_server.modal.User;
 import isil.java_quiz_server.repository.UserRepository;
 import isil.java_quiz_server.requests.LoginRequest;
@@ -7,39 +9,139 @@ import isil.java_quiz_server.response.LoginResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
 @Service
 public class LoginService {
     private static final Logger logger = LoggerFactory.getLogger(LoginService.class);
+    private static final String HMAC = "HmacSHA256";
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final SessionTokenService sessionTokenService;
+    // Short-lived record of passwords verified against a stored hash, so a class logging in
+    // at once pays for each slow hash only once. Keyed by username; the value binds the
+    // stored hash to an HMAC of the password under a key that never leaves this process.
+    private final Cache<String, VerifiedCredential> verifiedCredentials;
+    private final SecretKeySpec cacheKey;
+    // Hashed once so unknown usernames cost as much as wrong passwords
+    private final String dummyHash;
 
     @Autowired
-    private UserRepository userRepository;
+    public LoginService(UserRepository userRepository, PasswordHasher passwordHasher,
+                        SessionTokenService sessionTokenService,
+                        @Value("${quiz.security.login-cache.ttl:PT5M}") Duration cacheTtl,
+                        @Value("${quiz.security.login-cache.max-size:10000}") long cacheMaxSize) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.sessionTokenService = sessionTokenService;
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.cacheKey = new SecretKeySpec(key, HMAC);
+        this.dummyHash = passwordHasher.hash("dummy-password");
+    }
 
+    /**
+     * Not transactional: the user is read in the repository's own transaction, so no
+     * connection is held while the password is hashed.
+     */
     public LoginResponse authenticateUser(LoginRequest loginRequest) {
         logger.debug("Authenticating user: username={}", loginRequest.getUsername());
         if (loginRequest.getUsername() == null || loginRequest.getPassword() == null) {
-            logger.warn("Invalid login request: username={}, password={}", 
-                loginRequest.getUsername(), 
+            logger.warn("Invalid login request: username={}, password={}",
+                loginRequest.getUsername(),
                 loginRequest.getPassword() != null ? "[provided]" : "null");
             return new LoginResponse(null, false);
         }
-        User user = userRepository.findByUsernameAndPassword(
-            loginRequest.getUsername().trim(), 
-            loginRequest.getPassword().trim()
-        );
-        boolean isAuthenticated = user != null;
-        if (isAuthenticated) {
-            logger.info("Authentication successful for username: {}", loginRequest.getUsername());
+        String username = loginRequest.getUsername().trim();
+        String password = loginRequest.getPassword().trim();
+        User user = userRepository.findByUsername(username);
+        if (user == null) {
+            passwordHasher.matches(password, dummyHash);
+            logger.warn("Authentication failed, no user found with username: {}", username);
+            return new LoginResponse(null, false);
+        }
+        if (!verify(user, password)) {
+            logger.warn("Authentication failed, password mismatch for username: {}", username);
+            return new LoginResponse(null, false);
+        }
+        logger.debug("Authentication successful for username: {}", username);
+        return new LoginResponse(user, sessionTokenService.issue(user), sessionTokenService.getTtl().toSeconds());
+    }
+
+    /**
+     * Hashes a new user's password before it is stored.
+     */
+    public User prepareNewUser(User user) {
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        return user;
+    }
+
+    public long getVerifiedCredentialHits() {
+        return verifiedCredentials.stats().hitCount();
+    }
+
+    private boolean verify(User user, String password) {
+        String stored = user.getPassword();
+        if (stored == null) {
+            return false;
+        }
+        byte[] digest = hmac(password);
+        VerifiedCredential cached = verifiedCredentials.getIfPresent(user.getUsername());
+        if (cached != null && cached.storedHash.equals(stored) && MessageDigest.isEqual(cached.digest, digest)) {
+            return true;
+        }
+        boolean matches;
+        if (passwordHasher.isHashed(stored)) {
+            matches = passwordHasher.matches(password, stored);
         } else {
-            logger.warn("Authentication failed for username: {}", loginRequest.getUsername());
-            User existingUser = userRepository.findByUsername(loginRequest.getUsername().trim());
-            if (existingUser == null) {
-                logger.warn("No user found with username: {}", loginRequest.getUsername());
-            } else {
-                logger.warn("Password mismatch for username: {}", loginRequest.getUsername());
-            }
-        }
-        return new LoginResponse(user, isAuthenticated);
+            // Rows from before hashing hold the plain password; they are upgraded below
+            matches = MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                    password.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!matches) {
+            return false;
+        }
+        if (passwordHasher.needsRehash(stored)) {
+            user.setPassword(passwordHasher.hash(password));
+            userRepository.updatePassword(user.getId(), stored, user.getPassword());
+            logger.info("Upgraded stored password hash for username: {}", user.getUsername());
+        }
+        verifiedCredentials.put(user.getUsername(), new VerifiedCredential(user.getPassword(), digest));
+        return true;
+    }
+
+    private byte[] hmac(String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(cacheKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    private static final class VerifiedCredential {
+        private final String storedHash;
+        private final byte[] digest;
+
+        private VerifiedCredential(String storedHash, byte[] digest) {
+            this.storedHash = storedHash;
+            this.digest = digest;
+        }
     }
-}
\ No newline at end of file
+}
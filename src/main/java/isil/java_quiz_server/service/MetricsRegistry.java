@@ -0,0 +1,362 @@
+package isil.java_quiz_server.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics: request latency per route, repository call timings and row
+ * counts, JDBC statement timings, and gauges read from the caches, pools and limiters
+ * at scrape time. {@link #scrape()} renders them in the Prometheus text format.
+ *
+ * <p>Recording only looks up preallocated counters by route pattern and HTTP method, or
+ * repository and method name, so after the first call it does not allocate.
+ *
+ * <p>A request is flagged when it is slower than {@code quiz.metrics.slow-request-ms},
+ * runs one statement shape {@code quiz.metrics.repeated-statement-threshold} times or
+ * more (the usual sign of an N+1), runs a statement slower than
+ * {@code quiz.metrics.slow-statement-ms}, or exceeds its declared statement budget.
+ * Flagged requests are logged with a report of their statements, and the most recent
+ * ones are kept for {@link #getFlaggedRequests()}.
+ */
+@Service
+public class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final int KEPT_FLAGGED_REQUESTS = 50;
+    // Tomcat accepts any method token; anything else is counted as OTHER so clients cannot add series
+    private static final Set<String> STANDARD_METHODS =
+            Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE", "CONNECT");
+    private static final String OTHER_METHOD = "OTHER";
+
+    public enum Flag { SLOW_REQUEST, SLOW_STATEMENT, REPEATED_STATEMENTS, OVER_BUDGET }
+
+    private final long slowRequestNanos;
+    private final long slowStatementNanos;
+    private final int repeatedStatementThreshold;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, RouteMetrics>> routes = new ConcurrentHashMap<>();
+    // Repository name, then method name; overloads are counted together
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, RepositoryMetrics>> repositories =
+            new ConcurrentHashMap<>();
+    private final LatencyHistogram statements = new LatencyHistogram();
+    private final LongAdder slowStatements = new LongAdder();
+    private final Map<Flag, LongAdder> flagged = new EnumMap<>(Flag.class);
+    private final Map<String, Supplier<? extends Map<String, ?>>> gauges = new ConcurrentSkipListMap<>();
+    private final Deque<Map<String, Object>> flaggedRequests = new ArrayDeque<>();
+
+    @Autowired
+    public MetricsRegistry(@Value("${quiz.metrics.slow-request-ms:1000}") long slowRequestMillis,
+                           @Value("${quiz.metrics.slow-statement-ms:250}") long slowStatementMillis,
+                           @Value("${quiz.metrics.repeated-statement-threshold:5}") int repeatedStatementThreshold) {
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+        this.slowStatementNanos = TimeUnit.MILLISECONDS.toNanos(slowStatementMillis);
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        for (Flag flag : Flag.values()) {
+            flagged.put(flag, new LongAdder());
+        }
+    }
+
+    public void recordRequest(String method, String route, int status, long nanos, RequestSpan span) {
+        String methodLabel = STANDARD_METHODS.contains(method) ? method : OTHER_METHOD;
+        RouteMetrics metrics = routes.computeIfAbsent(route, r -> new ConcurrentHashMap<>())
+                .computeIfAbsent(methodLabel, m -> new RouteMetrics());
+        metrics.latencies(Math.min(Math.max(status / 100, 0), 5)).record(nanos);
+        if (span != null) {
+            metrics.statements.add(span.getStatementCount());
+            inspect(route, status, nanos, span);
+        }
+    }
+
+    private void inspect(String route, int status, long nanos, RequestSpan span) {
+        EnumSet<Flag> flags = EnumSet.noneOf(Flag.class);
+        if (nanos >= slowRequestNanos) {
+            flags.add(Flag.SLOW_REQUEST);
+        }
+        if (span.getSlowStatementCount() > 0) {
+            flags.add(Flag.SLOW_STATEMENT);
+        }
+        if (span.getStatementCount() >= repeatedStatementThreshold
+                && !span.getRepeatedShapes(repeatedStatementThreshold).isEmpty()) {
+            flags.add(Flag.REPEATED_STATEMENTS);
+        }
+        if (span.isOverBudget()) {
+            flags.add(Flag.OVER_BUDGET);
+        }
+        if (flags.isEmpty()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} in {} ms", span.describeStatements(repeatedStatementThreshold), millis(nanos));
+            }
+            return;
+        }
+        for (Flag flag : flags) {
+            flagged.get(flag).increment();
+        }
+        recordFlaggedRequest(route, status, nanos, span, flags);
+    }
+
+    public void recordRepositoryCall(String repository, String method, long nanos, long rows, boolean failed) {
+        ConcurrentHashMap<String, RepositoryMetrics> methods = repositories.computeIfAbsent(repository,
+                r -> new ConcurrentHashMap<>());
+        RepositoryMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(method, m -> new RepositoryMetrics(repository, m));
+        }
+        metrics.latencies.record(nanos);
+        metrics.rows.add(rows);
+        if (failed) {
+            metrics.errors.increment();
+        }
+        RequestSpan span = RequestSpan.current();
+        if (span != null) {
+            span.addRepositoryCall(nanos);
+        }
+    }
+
+    public void recordStatement(String sql, long nanos) {
+        statements.record(nanos);
+        boolean slow = nanos >= slowStatementNanos;
+        if (slow) {
+            slowStatements.increment();
+            logger.warn("Slow statement took {} ms: {}", millis(nanos), sql);
+        }
+        RequestSpan span = RequestSpan.current();
+        if (span != null) {
+            span.addStatement(sql, nanos, slow);
+        }
+    }
+
+    /**
+     * The span's statements as one line, listing the shapes repeated often enough to be
+     * flagged.
+     */
+    public String describe(RequestSpan span) {
+        return span.describeStatements(repeatedStatementThreshold);
+    }
+
+    /**
+     * Registers numbers read at scrape time. Values of a nested map become one metric per
+     * inner key labelled with the outer key; booleans become 0 or 1 and other values are
+     * skipped.
+     */
+    public void registerGauges(String name, Supplier<? extends Map<String, ?>> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    private void recordFlaggedRequest(String route, int status, long nanos, RequestSpan span, Set<Flag> flags) {
+        List<Map<String, Object>> repeated = new ArrayList<>();
+        for (RequestSpan.Shape shape : span.getRepeatedShapes(repeatedStatementThreshold)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sql", shape.getSql());
+            entry.put("count", shape.getCount());
+            entry.put("ms", millis(shape.getNanos()));
+            repeated.add(entry);
+        }
+        List<Map<String, Object>> statementList = new ArrayList<>();
+        for (RequestSpan.Statement statement : span.getStatements()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sql", statement.getSql());
+            entry.put("ms", millis(statement.getNanos()));
+            statementList.add(entry);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("traceId", span.getTraceId());
+        report.put("method", span.getMethod());
+        report.put("path", span.getPath());
+        report.put("route", route);
+        report.put("status", status);
+        report.put("flags", flags);
+        report.put("ms", millis(nanos));
+        report.put("repositoryCalls", span.getRepositoryCalls());
+        report.put("statementCount", span.getStatementCount());
+        report.put("statementBudget", span.getStatementBudget() >= 0 ? span.getStatementBudget() : null);
+        report.put("statementMs", millis(span.getStatementNanos()));
+        report.put("repeatedStatements", repeated);
+        report.put("statements", statementList);
+        synchronized (flaggedRequests) {
+            if (flaggedRequests.size() == KEPT_FLAGGED_REQUESTS) {
+                flaggedRequests.removeLast();
+            }
+            flaggedRequests.addFirst(report);
+        }
+        logger.warn("Flagged request {}: {} in {} ms ({} ms in SQL)", flags,
+                span.describeStatements(repeatedStatementThreshold), millis(nanos), millis(span.getStatementNanos()));
+    }
+
+    /**
+     * Reports on the most recently flagged requests, newest first.
+     */
+    public List<Map<String, Object>> getFlaggedRequests() {
+        synchronized (flaggedRequests) {
+            return new ArrayList<>(flaggedRequests);
+        }
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        out.append("# TYPE quiz_http_server_requests_seconds summary\n");
+        StringBuilder max = new StringBuilder();
+        StringBuilder jdbc = new StringBuilder();
+        routes.forEach((route, byMethod) -> byMethod.forEach((method, metrics) -> {
+            for (int statusClass = 0; statusClass < metrics.latencies.length(); statusClass++) {
+                LatencyHistogram histogram = metrics.latencies.get(statusClass);
+                if (histogram == null) {
+                    continue;
+                }
+                String labels = "method=\"" + escape(method) + "\",uri=\"" + escape(route) + "\",status=\""
+                        + statusClass + "xx\"";
+                summary(out, "quiz_http_server_requests_seconds", labels, histogram);
+                max.append("quiz_http_server_requests_seconds_max{").append(labels).append("} ")
+                        .append(seconds(histogram.getMaxNanos())).append('\n');
+            }
+            jdbc.append("quiz_http_server_jdbc_statements_total{method=\"").append(escape(method))
+                    .append("\",uri=\"").append(escape(route)).append("\"} ").append(metrics.statements.sum())
+                    .append('\n');
+        }));
+        out.append("# TYPE quiz_http_server_requests_seconds_max gauge\n").append(max);
+        out.append("# TYPE quiz_http_server_jdbc_statements_total counter\n").append(jdbc);
+        out.append("# TYPE quiz_http_server_flagged_requests_total counter\n");
+        flagged.forEach((flag, count) -> out.append("quiz_http_server_flagged_requests_total{flag=\"")
+                .append(flag.name().toLowerCase()).append("\"} ").append(count.sum()).append('\n'));
+
+        out.append("# TYPE quiz_repository_calls_seconds summary\n");
+        StringBuilder rows = new StringBuilder();
+        StringBuilder errors = new StringBuilder();
+        repositories.values().stream()
+                .flatMap(methods -> methods.values().stream())
+                .sorted((a, b) -> (a.repository + a.method).compareTo(b.repository + b.method))
+                .forEach(metrics -> {
+                    String labels = "repository=\"" + escape(metrics.repository) + "\",method=\""
+                            + escape(metrics.method) + "\"";
+                    summary(out, "quiz_repository_calls_seconds", labels, metrics.latencies);
+                    rows.append("quiz_repository_rows_total{").append(labels).append("} ")
+                            .append(metrics.rows.sum()).append('\n');
+                    errors.append("quiz_repository_errors_total{").append(labels).append("} ")
+                            .append(metrics.errors.sum()).append('\n');
+                });
+        out.append("# TYPE quiz_repository_rows_total counter\n").append(rows);
+        out.append("# TYPE quiz_repository_errors_total counter\n").append(errors);
+
+        out.append("# TYPE quiz_jdbc_statements_seconds summary\n");
+        summary(out, "quiz_jdbc_statements_seconds", null, statements);
+        out.append("# TYPE quiz_jdbc_slow_statements_total counter\n");
+        out.append("quiz_jdbc_slow_statements_total ").append(slowStatements.sum()).append('\n');
+
+        gauges.forEach((name, supplier) -> {
+            Map<String, ?> values;
+            try {
+                values = supplier.get();
+            } catch (RuntimeException e) {
+                logger.debug("Could not read gauges {}", name, e);
+                return;
+            }
+            values.forEach((key, value) -> {
+                if (value instanceof Map) {
+                    ((Map<?, ?>) value).forEach((innerKey, innerValue) ->
+                            gauge(out, name + "_" + innerKey, "name=\"" + escape(String.valueOf(key)) + "\"",
+                                    innerValue));
+                } else {
+                    gauge(out, name + "_" + key, null, value);
+                }
+            });
+        });
+        return out.toString();
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.percentileNanos(quantile))).append('\n');
+        }
+        String suffix = labels == null ? " " : "{" + labels + "} ";
+        out.append(name).append("_count").append(suffix).append(histogram.getCount()).append('\n');
+        out.append(name).append("_sum").append(suffix).append(seconds(histogram.getSumNanos())).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String labels, Object value) {
+        double number;
+        if (value instanceof Number) {
+            number = ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            number = (Boolean) value ? 1 : 0;
+        } else {
+            return;
+        }
+        out.append("quiz_").append(sanitize(name));
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(number).append('\n');
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                sanitized.append('_').append(Character.toLowerCase(c));
+            } else {
+                sanitized.append(Character.isLetterOrDigit(c) ? c : '_');
+            }
+        }
+        return sanitized.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class RouteMetrics {
+        // Indexed by status / 100, created on first use since most routes see few classes
+        private final AtomicReferenceArray<LatencyHistogram> latencies = new AtomicReferenceArray<>(6);
+        private final LongAdder statements = new LongAdder();
+
+        private LatencyHistogram latencies(int statusClass) {
+            LatencyHistogram histogram = latencies.get(statusClass);
+            if (histogram == null) {
+                latencies.compareAndSet(statusClass, null, new LatencyHistogram());
+                histogram = latencies.get(statusClass);
+            }
+            return histogram;
+        }
+    }
+
+    private static final class RepositoryMetrics {
+        private final String repository;
+        private final String method;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private RepositoryMetrics(String repository, String method) {
+            this.repository = repository;
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package isil.java_quiz_server.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set with O(log n) expected insert, remove, rank and select, implemented as a
+ * treap whose nodes track their subtree size. Not thread-safe.
+ */
+class OrderStatisticTree<T> {
+    private final Comparator<? super T> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<T> root;
+
+    OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Adds the value unless an equal one is already present.
+     */
+    boolean add(T value) {
+        if (rank(value) >= 0) {
+            return false;
+        }
+        Split<T> parts = split(root, value);
+        root = merge(merge(parts.before, new Node<>(value, random.nextInt())), parts.after);
+        return true;
+    }
+
+    boolean remove(T value) {
+        int sizeBefore = size(root);
+        root = remove(root, value);
+        return size(root) < sizeBefore;
+    }
+
+    /**
+     * Zero-based position of the value in sort order, or -1 if it is not present.
+     */
+    int rank(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    T get(int index) {
+        Node<T> node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Values at positions {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    List<T> range(int from, int to) {
+        List<T> values = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            values.add(get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Splits into values ordered before {@code value} and values ordered after it.
+     */
+    private Split<T> split(Node<T> node, T value) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            Split<T> right = split(node.right, value);
+            node.right = right.before;
+            return new Split<>(update(node), right.after);
+        }
+        Split<T> left = split(node.left, value);
+        node.left = left.after;
+        return new Split<>(left.before, update(node));
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private Node<T> remove(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp < 0) {
+            node.left = remove(node.left, value);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, value);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private static <T> Node<T> update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private static final class Split<T> {
+        private final Node<T> before;
+        private final Node<T> after;
+
+        private Split(Node<T> before, Node<T> after) {
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package isil.java_quiz_server.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes quiz results to an output stream one row at a time, so an export of the whole
+ * table never holds more than a fetch-sized window of rows in memory.
+ */
+@Service
+public class QuizResultExportService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizResultExportService.class);
+    private static final String CSV_HEADER = "id,submissionId,userId,username,quizId,quizTitle,score,"
+            + "totalQuestions,percentage,completedAt,timeTakenSeconds";
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final QuizResultRepository quizResultRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public QuizResultExportService(QuizResultRepository quizResultRepository, EntityManager entityManager,
+                                   ObjectMapper objectMapper) {
+        this.quizResultRepository = quizResultRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams the results of one quiz, or all results when {@code quizId} is null, ordered
+     * by id. Returns the number of rows written. The caller owns and closes {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, Long quizId, OutputStream out) throws IOException {
+        logger.debug("Exporting quiz results: format={}, quizId={}", format, quizId);
+        try (Stream<QuizResult> results = quizId == null
+                ? quizResultRepository.streamAll()
+                : quizResultRepository.streamByQuizId(quizId)) {
+            long rows = format == Format.CSV
+                    ? writeCsv(results.iterator(), out)
+                    : writeNdjson(results.iterator(), out);
+            logger.info("Exported {} quiz results as {}", rows, format);
+            return rows;
+        }
+    }
+
+    private long writeNdjson(Iterator<QuizResult> results, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Records are newline-delimited; drop the default space between root values
+            generator.setRootValueSeparator(null);
+            while (results.hasNext()) {
+                QuizResult result = results.next();
+                objectMapper.writeValue(generator, result);
+                generator.writeRaw('\n');
+                // Keep the persistence context from growing with the export
+                entityManager.detach(result);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<QuizResult> results, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (results.hasNext()) {
+            QuizResult result = results.next();
+            writer.write(String.valueOf(result.getId()));
+            writeCsvField(writer, result.getSubmissionId());
+            writeCsvField(writer, result.getUserId());
+            writeCsvField(writer, result.getUsername());
+            writeCsvField(writer, result.getQuizId());
+            writeCsvField(writer, result.getQuizTitle());
+            writeCsvField(writer, result.getScore());
+            writeCsvField(writer, result.getTotalQuestions());
+            writeCsvField(writer, result.getPercentage());
+            writeCsvField(writer, result.getCompletedAt());
+            writeCsvField(writer, result.getTimeTakenSeconds());
+            writer.write('\n');
+            entityManager.detach(result);
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,426 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind mode for quiz result submissions. Accepted results are journaled to
+ * disk, queued in a bounded buffer and written by a single flusher thread as
+ * multi-row INSERTs, which Hibernate cannot batch for IDENTITY ids. Results left in
+ * the journal by a crash are replayed on startup. A batch the database refuses is
+ * retried row by row, and rows that still violate a constraint are written to the
+ * {@code quiz.results.dead-letter} log instead of blocking the rows behind them.
+ * Disabled unless {@code quiz.results.write-behind.enabled=true}.
+ */
+@Service
+public class QuizResultIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizResultIngestionService.class);
+    private static final Logger deadLetterLogger = LoggerFactory.getLogger("quiz.results.dead-letter");
+
+    private static final String INSERT_PREFIX = "INSERT INTO quiz_results (submission_id, user_id, username, " +
+            "quiz_id, quiz_title, score, total_questions, percentage, completed_at, time_taken_seconds) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 10;
+    private static final String SELECT_IDS_PREFIX = "SELECT id, submission_id FROM quiz_results WHERE submission_id IN (";
+    private static final int REPLAY_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuizResultRepository quizResultRepository;
+    private final QuizStatisticsService quizStatisticsService;
+    private final LeaderboardService leaderboardService;
+    private final AttemptService attemptService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Semaphore capacity;
+    private final BlockingQueue<PendingResult> buffer = new LinkedBlockingQueue<>();
+    private final SubmissionJournal journal;
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong deadLetteredCount = new AtomicLong();
+    // Submits hold the read lock from the running check until their result is queued,
+    // so stop() cannot let the flusher exit with a result still on its way in
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public QuizResultIngestionService(JdbcTemplate jdbcTemplate, QuizResultRepository quizResultRepository,
+                                      QuizStatisticsService quizStatisticsService,
+                                      LeaderboardService leaderboardService,
+                                      AttemptService attemptService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${quiz.results.write-behind.enabled:false}") boolean enabled,
+                                      @Value("${quiz.results.write-behind.capacity:10000}") int capacity,
+                                      @Value("${quiz.results.write-behind.batch-size:500}") int batchSize,
+                                      @Value("${quiz.results.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                                      @Value("${quiz.results.journal.enabled:true}") boolean journalEnabled,
+                                      @Value("${quiz.results.journal.dir:quiz-journal}") String journalDir,
+                                      @Value("${quiz.results.journal.segment-bytes:16777216}") long segmentBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.quizResultRepository = quizResultRepository;
+        this.quizStatisticsService = quizStatisticsService;
+        this.leaderboardService = leaderboardService;
+        this.attemptService = attemptService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.capacity = new Semaphore(capacity);
+        this.journal = journalEnabled ? new SubmissionJournal(Paths.get(journalDir), segmentBytes) : null;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (journal != null) {
+            replay(journal.recover());
+            journal.discardRecovered();
+        } else {
+            logger.warn("Quiz result journal disabled: buffered submissions are lost if the JVM crashes");
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "quiz-result-flusher");
+        flusher.start();
+        logger.info("Quiz result write-behind enabled: capacity={}, batchSize={}, flushIntervalMs={}",
+                capacity.availablePermits(), batchSize, flushIntervalMillis);
+    }
+
+    /**
+     * Stops accepting work and flushes everything still buffered before the
+     * DataSource is closed.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled) {
+            return;
+        }
+        stopAccepting();
+        flusher.join();
+        if (journal != null) {
+            journal.close();
+        }
+        logger.info("Quiz result write-behind stopped: flushed={}, rejected={}, deadLettered={}", flushedCount.get(),
+                rejectedCount.get(), deadLetteredCount.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals and queues a result for writing. Returns the receipt id, which is also
+     * stored as the result's submission id, or null if the buffer is full or the
+     * journal cannot be written and the caller should retry later.
+     */
+    public String submit(QuizResult quizResult) {
+        return submit(quizResult, AttemptService.Reservation.NONE);
+    }
+
+    /**
+     * As {@link #submit(QuizResult)}, taking over the attempt reserved for the result:
+     * it is released once the result has been written, or straight away if the result
+     * is rejected.
+     */
+    public String submit(QuizResult quizResult, AttemptService.Reservation reservation) {
+        submitLock.readLock().lock();
+        try {
+            return enqueue(quizResult, reservation);
+        } finally {
+            submitLock.readLock().unlock();
+        }
+    }
+
+    private String enqueue(QuizResult quizResult, AttemptService.Reservation reservation) {
+        if (!running || !capacity.tryAcquire()) {
+            rejectedCount.incrementAndGet();
+            reservation.release();
+            return null;
+        }
+        String submissionId = UUID.randomUUID().toString();
+        quizResult.setSubmissionId(submissionId);
+        long sequence = 0;
+        if (journal != null) {
+            try {
+                sequence = journal.append(quizResult);
+                journal.awaitDurable(sequence);
+            } catch (IOException e) {
+                logger.error("Failed to journal quiz result submission", e);
+                capacity.release();
+                rejectedCount.incrementAndGet();
+                reservation.release();
+                return null;
+            }
+        }
+        buffer.add(new PendingResult(quizResult, sequence, reservation));
+        return submissionId;
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getDeadLetteredCount() {
+        return deadLetteredCount.get();
+    }
+
+    /**
+     * Saves journaled results that did not reach the database before the last
+     * shutdown. Results whose submission id is already stored are skipped.
+     */
+    private void replay(List<QuizResult> recovered) {
+        int replayed = 0;
+        for (int from = 0; from < recovered.size(); from += REPLAY_CHUNK_SIZE) {
+            List<QuizResult> chunk = recovered.subList(from, Math.min(from + REPLAY_CHUNK_SIZE, recovered.size()));
+            Set<String> submissionIds = new HashSet<>();
+            for (QuizResult result : chunk) {
+                submissionIds.add(result.getSubmissionId());
+            }
+            Set<String> existing = new HashSet<>(quizResultRepository.findExistingSubmissionIds(submissionIds));
+            List<QuizResult> missing = new ArrayList<>();
+            for (QuizResult result : chunk) {
+                if (existing.add(result.getSubmissionId())) {
+                    missing.add(result);
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                quizResultRepository.saveAll(missing);
+                quizStatisticsService.recordAll(missing);
+                leaderboardService.recordAll(missing);
+                attemptService.recordAll(missing);
+            });
+            replayed += missing.size();
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Replayed {} of {} journaled quiz results", replayed, recovered.size());
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingResult> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopAccepting();
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.error("Failed to flush {} quiz results during shutdown, {}", buffer.size() + batch.size(),
+                            journal != null ? "leaving them for journal replay" : "dropping them", e);
+                    batch.clear();
+                    buffer.clear();
+                    continue;
+                }
+                logger.error("Failed to flush {} quiz results, retrying them one at a time", batch.size(), e);
+                writeOneByOne(batch);
+                if (!batch.isEmpty()) {
+                    // The database is unavailable; keep what is left and retry it on the next pass
+                    sleepQuietly(flushIntervalMillis);
+                }
+                continue;
+            }
+            for (PendingResult pending : batch) {
+                settle(pending);
+            }
+            flushedCount.addAndGet(batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the rows of a refused batch separately, removing each one that is
+     * written or dead-lettered. Stops at the first failure that is not the row's own
+     * fault, leaving it and the rest in the batch.
+     */
+    private void writeOneByOne(List<PendingResult> batch) {
+        Iterator<PendingResult> pendingResults = batch.iterator();
+        while (pendingResults.hasNext()) {
+            PendingResult pending = pendingResults.next();
+            try {
+                write(List.of(pending));
+                flushedCount.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                deadLetteredCount.incrementAndGet();
+                deadLetterLogger.error("Dropped quiz result the database refused: {}", pending.result, e);
+            } catch (RuntimeException e) {
+                logger.error("Failed to flush quiz result {}", pending.result.getSubmissionId(), e);
+                return;
+            }
+            settle(pending);
+            pendingResults.remove();
+        }
+    }
+
+    /**
+     * Lets go of everything a result held while it was pending.
+     */
+    private void settle(PendingResult pending) {
+        if (journal != null) {
+            journal.confirm(pending.sequence);
+        }
+        pending.reservation.release();
+        capacity.release();
+    }
+
+    /**
+     * Turns away new submissions once every submit already past the running check
+     * has queued its result.
+     */
+    private void stopAccepting() {
+        submitLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for a first result, then collects more until the batch is full or the
+     * flush interval since that first result has passed.
+     */
+    private void fillBatch(List<PendingResult> batch) throws InterruptedException {
+        if (batch.isEmpty()) {
+            PendingResult first = buffer.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingResult next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Inserts the batch and folds it into the quiz statistics in one transaction; the
+     * leaderboards are updated once it commits. The generated ids are read back by
+     * submission id before anything sees the results, as the leaderboards break ties
+     * on them.
+     */
+    private void write(List<PendingResult> batch) {
+        List<QuizResult> results = new ArrayList<>(batch.size());
+        Map<String, QuizResult> bySubmissionId = new HashMap<>();
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (PendingResult pending : batch) {
+            QuizResult result = pending.result;
+            results.add(result);
+            bySubmissionId.put(result.getSubmissionId(), result);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args[i++] = result.getSubmissionId();
+            args[i++] = result.getUserId();
+            args[i++] = result.getUsername();
+            args[i++] = result.getQuizId();
+            args[i++] = result.getQuizTitle();
+            args[i++] = result.getScore();
+            args[i++] = result.getTotalQuestions();
+            args[i++] = result.getPercentage();
+            args[i++] = result.getCompletedAt() != null ? Timestamp.valueOf(result.getCompletedAt()) : null;
+            args[i++] = result.getTimeTakenSeconds();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(sql.toString(), args);
+            assignIds(bySubmissionId);
+            quizStatisticsService.recordAll(results);
+            leaderboardService.recordAll(results);
+            attemptService.recordAll(results);
+        });
+    }
+
+    /**
+     * Sets the ids the database generated for just-inserted results. Looking them up
+     * rather than reading the insert's generated keys does not depend on a multi-row
+     * insert being given consecutive ids.
+     */
+    private void assignIds(Map<String, QuizResult> bySubmissionId) {
+        String sql = SELECT_IDS_PREFIX + String.join(", ", Collections.nCopies(bySubmissionId.size(), "?")) + ")";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                bySubmissionId.get(rs.getString(2)).setId(rs.getLong(1)), bySubmissionId.keySet().toArray());
+        for (QuizResult result : bySubmissionId.values()) {
+            if (result.getId() == null) {
+                throw new IllegalStateException("No id was generated for submission " + result.getSubmissionId());
+            }
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PendingResult {
+        private final QuizResult result;
+        private final long sequence;
+        private final AttemptService.Reservation reservation;
+
+        private PendingResult(QuizResult result, long sequence, AttemptService.Reservation reservation) {
+            this.result = result;
+            this.sequence = sequence;
+            this.reservation = reservation;
+        }
+    }
+}
@@ -2,16 +2,21 @@ package isil.java_quiz_server.service;
 
 import isil.java_quiz_server.modal.QuizResult;
 import isil.java_quiz_server.repository.QuizResultRepository;
+import isil.java_quiz_server.requests.QuizSubmission;
+import isil.java_quiz_server.response.AttemptSummary;
+import isil.java_quiz_server.response.LeaderboardRank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class QuizResultService {
@@ -20,65 +25,169 @@ public class QuizResultService {
     @Autowired
     private QuizResultRepository quizResultRepository;
 
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Transactional
     public QuizResult saveQuizResult(QuizResult quizResult) {
         logger.debug("Saving quiz result: userId={}, quizId={}", quizResult.getUserId(), quizResult.getQuizId());
-        return quizResultRepository.save(quizResult);
+        QuizResult savedResult = quizResultRepository.save(quizResult);
+        quizStatisticsService.record(savedResult);
+        leaderboardService.record(savedResult);
+        attemptService.record(savedResult);
+        return savedResult;
+    }
+
+    /**
+     * Grades the submitted answers against the cached answer key of the quiz. The
+     * returned result is not saved yet. Returns null if the quiz does not exist.
+     */
+    public QuizResult gradeSubmission(Long quizId, QuizSubmission submission) {
+        logger.debug("Grading submission: userId={}, quizId={}", submission.getUserId(), quizId);
+        Optional<CachedQuiz> quiz = quizService.getQuiz(quizId);
+        if (quiz.isEmpty()) {
+            return null;
+        }
+        AnswerKey answerKey = quiz.get().getAnswerKey();
+        int score = answerKey.grade(submission.getAnswers());
+        QuizResult result = new QuizResult(submission.getUserId(), submission.getUsername(), quizId,
+                quiz.get().getSnapshot().getTitle(), score, answerKey.getQuestionCount());
+        result.setTimeTakenSeconds(submission.getTimeTakenSeconds());
+        return result;
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResult> getAllResults() {
         logger.debug("Fetching all quiz results");
-        return quizResultRepository.findAllByOrderByCompletedAtDesc();
+        return quizResultRepository.findAllByOrderByCompletedAtDescIdDesc();
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResult> getResultsByUserId(Long userId) {
         logger.debug("Fetching quiz results for userId: {}", userId);
         return quizResultRepository.findByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResult> getResultsByQuizId(Long quizId) {
         logger.debug("Fetching quiz results for quizId: {}", quizId);
-        return quizResultRepository.findByQuizIdOrderByScoreDesc(quizId);
+        return quizResultRepository.findByQuizIdOrderByScoreDescIdDesc(quizId);
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResult> getResultsByUsername(String username) {
         logger.debug("Fetching quiz results for username: {}", username);
         return quizResultRepository.findByUsername(username);
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResult> getRecentResults() {
         logger.debug("Fetching recent quiz results");
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
         return quizResultRepository.getRecentResults(thirtyDaysAgo);
     }
 
-    public List<QuizResult> getTopPerformersForQuiz(Long quizId) {
-        logger.debug("Fetching top performers for quizId: {}", quizId);
-        return quizResultRepository.getTopPerformersForQuiz(quizId);
+    /**
+     * A page of all results, newest first; {@code before} is null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public List<QuizResult> getAllResults(String before, int limit) {
+        logger.debug("Fetching quiz results before: {}, limit: {}", before, limit);
+        if (before == null) {
+            return quizResultRepository.findAllByOrderByCompletedAtDescIdDesc(Limit.of(limit));
+        }
+        Cursor cursor = Cursor.parse(before);
+        return quizResultRepository.findCompletedBefore(cursor.completedAt, cursor.id, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuizResult> getResultsByUserId(Long userId, Long afterId, int limit) {
+        logger.debug("Fetching quiz results for userId: {} after ID: {}, limit: {}", userId, afterId, limit);
+        return quizResultRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, Limit.of(limit));
+    }
+
+    /**
+     * A page of the quiz's results, highest score first; {@code before} is null for the
+     * first page.
+     */
+    @Transactional(readOnly = true)
+    public List<QuizResult> getResultsByQuizId(Long quizId, String before, int limit) {
+        logger.debug("Fetching quiz results for quizId: {} before: {}, limit: {}", quizId, before, limit);
+        if (before == null) {
+            return quizResultRepository.findByQuizIdOrderByScoreDescIdDesc(quizId, Limit.of(limit));
+        }
+        ScoreCursor cursor = ScoreCursor.parse(before);
+        return quizResultRepository.findByQuizIdScoredBelow(quizId, cursor.score, cursor.id, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuizResult> getResultsByUsername(String username, Long afterId, int limit) {
+        logger.debug("Fetching quiz results for username: {} after ID: {}, limit: {}", username, afterId, limit);
+        return quizResultRepository.findByUsernameAndIdGreaterThanOrderByIdAsc(username, afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuizResult> getRecentResults(String before, int limit) {
+        logger.debug("Fetching recent quiz results before: {}, limit: {}", before, limit);
+        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
+        if (before == null) {
+            return quizResultRepository.findByCompletedAtGreaterThanEqualOrderByCompletedAtDescIdDesc(thirtyDaysAgo,
+                    Limit.of(limit));
+        }
+        Cursor cursor = Cursor.parse(before);
+        return quizResultRepository.findCompletedSinceAndBefore(thirtyDaysAgo, cursor.completedAt, cursor.id,
+                Limit.of(limit));
+    }
+
+    /**
+     * The cursor that pages a newest-first listing past this result.
+     */
+    public static String cursorOf(QuizResult result) {
+        return result.getCompletedAt() + "_" + result.getId();
+    }
+
+    /**
+     * The cursor that pages a highest-score-first listing past this result.
+     */
+    public static String scoreCursorOf(QuizResult result) {
+        return result.getScore() + "_" + result.getId();
     }
 
+    public List<QuizResult> getTopPerformersForQuiz(Long quizId, int limit) {
+        logger.debug("Fetching top {} performers for quizId: {}", limit, quizId);
+        return leaderboardService.getTop(quizId, limit);
+    }
+
+    public List<QuizResult> getPerformersAroundUser(Long quizId, Long userId, int limit) {
+        logger.debug("Fetching {} performers around userId: {} for quizId: {}", limit, userId, quizId);
+        return leaderboardService.getAround(quizId, userId, limit);
+    }
+
+    public LeaderboardRank getUserRank(Long quizId, Long userId) {
+        logger.debug("Fetching rank of userId: {} for quizId: {}", userId, quizId);
+        return leaderboardService.getRank(quizId, userId);
+    }
+
+    @Transactional(readOnly = true)
     public Double getAverageScoreForQuiz(Long quizId) {
         logger.debug("Fetching average score for quizId: {}", quizId);
         Double average = quizResultRepository.getAverageScoreForQuiz(quizId);
         return average != null ? average : 0.0;
     }
 
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getQuizStatistics() {
         logger.debug("Fetching quiz statistics");
-        List<Object[]> rawData = quizResultRepository.getQuizStatistics();
-        List<Map<String, Object>> statistics = new ArrayList<>();
-
-        for (Object[] row : rawData) {
-            Map<String, Object> stat = new HashMap<>();
-            stat.put("quizId", row[0]);
-            stat.put("quizTitle", row[1]);
-            stat.put("totalAttempts", row[2]);
-            stat.put("averageScore", row[3]);
-            stat.put("highestScore", row[4]);
-            stat.put("lowestScore", row[5]);
-            statistics.add(stat);
-        }
-
-        return statistics;
+        return quizStatisticsService.getQuizStatistics();
     }
 
     public QuizResult createQuizResult(Long userId, String username, Long quizId,
@@ -90,21 +199,78 @@ public class QuizResultService {
 
     public QuizResult getBestScoreForUserOnQuiz(Long userId, Long quizId) {
         logger.debug("Fetching best score for userId: {}, quizId: {}", userId, quizId);
-        List<QuizResult> results = quizResultRepository.findByUserIdAndQuizId(userId, quizId);
-        return results.stream()
-                .max((r1, r2) -> Integer.compare(r1.getScore(), r2.getScore()))
-                .orElse(null);
+        return quizResultRepository.findFirstByUserIdAndQuizIdOrderByScoreDescIdAsc(userId, quizId).orElse(null);
     }
 
     public boolean hasUserTakenQuiz(Long userId, Long quizId) {
         logger.debug("Checking if userId: {} has taken quizId: {}", userId, quizId);
-        List<QuizResult> results = quizResultRepository.findByUserIdAndQuizId(userId, quizId);
-        return !results.isEmpty();
+        return attemptService.getAttemptCount(userId, quizId) > 0;
     }
 
     public long getUserAttemptCount(Long userId, Long quizId) {
         logger.debug("Fetching attempt count for userId: {}, quizId: {}", userId, quizId);
-        List<QuizResult> results = quizResultRepository.findByUserIdAndQuizId(userId, quizId);
-        return results.size();
+        return attemptService.getAttemptCount(userId, quizId);
+    }
+
+    public AttemptSummary getAttemptSummary(Long userId, Long quizId) {
+        logger.debug("Fetching attempt summary for userId: {}, quizId: {}", userId, quizId);
+        return attemptService.getSummary(userId, quizId);
+    }
+
+    public boolean isAttemptLimitReached(Long userId, Long quizId) {
+        return attemptService.isLimitReached(userId, quizId);
+    }
+
+    /**
+     * Reserves an attempt before a result is saved; null when the user has none left.
+     */
+    public AttemptService.Reservation reserveAttempt(Long userId, Long quizId) {
+        return attemptService.reserve(userId, quizId);
+    }
+
+    /**
+     * Completion time and id of the last result on a newest-first page.
+     */
+    private static final class Cursor {
+        private final LocalDateTime completedAt;
+        private final Long id;
+
+        private Cursor(LocalDateTime completedAt, Long id) {
+            this.completedAt = completedAt;
+            this.id = id;
+        }
+
+        private static Cursor parse(String value) {
+            int separator = value.lastIndexOf('_');
+            try {
+                return new Cursor(LocalDateTime.parse(value.substring(0, Math.max(separator, 0))),
+                        Long.valueOf(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid result cursor: " + value, e);
+            }
+        }
+    }
+
+    /**
+     * Score and id of the last result on a highest-score-first page.
+     */
+    private static final class ScoreCursor {
+        private final Integer score;
+        private final Long id;
+
+        private ScoreCursor(Integer score, Long id) {
+            this.score = score;
+            this.id = id;
+        }
+
+        private static ScoreCursor parse(String value) {
+            int separator = value.indexOf('_');
+            try {
+                return new ScoreCursor(Integer.valueOf(value.substring(0, Math.max(separator, 0))),
+                        Long.valueOf(value.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid result cursor: " + value, e);
+            }
+        }
     }
-}
\ No newline at end of file
+}
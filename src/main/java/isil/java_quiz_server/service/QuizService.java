@@ -0,0 +1,156 @@
+package isil.java_quiz_server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.response.QuizSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class QuizService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizService.class);
+
+    private final QuizRepository quizRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<WireFormat, ObjectMapper> binaryMappers = new EnumMap<>(WireFormat.class);
+    private final Cache<Long, CachedQuiz> quizCache;
+    private final long maxBytes;
+
+    @Autowired
+    public QuizService(QuizRepository quizRepository, ObjectMapper objectMapper,
+                       @Value("${quiz.cache.max-bytes:67108864}") long maxBytes) {
+        this.quizRepository = quizRepository;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        binaryMappers.put(WireFormat.CBOR, WireFormat.CBOR.mapperFrom(objectMapper));
+        binaryMappers.put(WireFormat.SMILE, WireFormat.SMILE.mapperFrom(objectMapper));
+        // Caffeine evicts with W-TinyLFU, weighing each snapshot by its estimated size
+        this.quizCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, CachedQuiz cachedQuiz) -> cachedQuiz.estimatedSize())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CachedQuiz> getQuiz(Long id) {
+        // Absent quizzes are not cached, so a quiz created later is found on the next read
+        CachedQuiz cachedQuiz = quizCache.get(id,
+                key -> quizRepository.findGraphById(key).map(this::render).orElse(null));
+        return Optional.ofNullable(cachedQuiz);
+    }
+
+    private CachedQuiz render(Quiz quiz) {
+        QuizSnapshot snapshot = QuizSnapshot.of(quiz);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(snapshot);
+            return new CachedQuiz(snapshot, json, etagOf(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The quiz serialized in the given format. Binary encodings are rendered on first
+     * use and kept with the cache entry, which is then weighed again so the cache stays
+     * within its bound.
+     */
+    public byte[] getBody(CachedQuiz cachedQuiz, WireFormat format) {
+        byte[] body = cachedQuiz.getEncoded(format);
+        if (body != null) {
+            return body;
+        }
+        try {
+            body = binaryMappers.get(format).writeValueAsBytes(cachedQuiz.getSnapshot());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        cachedQuiz.setEncoded(format, body);
+        // Does nothing if the entry was evicted or replaced in the meantime
+        quizCache.asMap().replace(cachedQuiz.getSnapshot().getId(), cachedQuiz, cachedQuiz);
+        return body;
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Saves a new or updated quiz. Every write to a quiz must go through this service
+     * (or call {@link #evict}) so cached snapshots never outlive the data they copy.
+     */
+    public Quiz saveQuiz(Quiz quiz) {
+        logger.debug("Saving quiz: title={}", quiz.getTitle());
+        Quiz savedQuiz = quizRepository.save(quiz);
+        evict(savedQuiz.getId());
+        return savedQuiz;
+    }
+
+    /**
+     * Saves several quizzes with one repository call, evicting each like {@link #saveQuiz}.
+     */
+    public List<Quiz> saveQuizzes(List<Quiz> quizzes) {
+        logger.debug("Saving {} quizzes", quizzes.size());
+        List<Quiz> savedQuizzes = quizRepository.saveAll(quizzes);
+        for (Quiz savedQuiz : savedQuizzes) {
+            evict(savedQuiz.getId());
+        }
+        return savedQuizzes;
+    }
+
+    /**
+     * Drops the cached snapshot of a quiz. Inside a transaction the eviction is deferred
+     * until after commit, so a concurrent read cannot re-cache the old version.
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    quizCache.invalidate(id);
+                }
+            });
+        } else {
+            quizCache.invalidate(id);
+        }
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        CacheStats stats = quizCache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("entries", quizCache.estimatedSize());
+        statistics.put("weightedBytes", quizCache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        statistics.put("maxBytes", maxBytes);
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("evictedBytes", stats.evictionWeight());
+        return statistics;
+    }
+}
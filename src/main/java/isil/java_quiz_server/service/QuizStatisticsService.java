@@ -0,0 +1,220 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.modal.QuizStatistics;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import isil.java_quiz_server.repository.QuizScoreBucketRepository;
+import isil.java_quiz_server.repository.QuizStatisticsRepository;
+import isil.java_quiz_server.response.ScoreDistribution;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-quiz aggregates (attempts, count, sum and sum of squares of the percentages,
+ * min and max score) kept in {@code quiz_statistics}, plus a percentage histogram per quiz in
+ * {@code quiz_score_histogram}. Both are updated in the same transaction as each
+ * result insert, so the statistics endpoints never scan {@code quiz_results}.
+ */
+@Service
+public class QuizStatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizStatisticsService.class);
+
+    private static final double[] REPORTED_QUANTILES = {0.25, 0.5, 0.75, 0.9, 0.99};
+
+    private final QuizStatisticsRepository quizStatisticsRepository;
+    private final QuizScoreBucketRepository quizScoreBucketRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final TransactionTemplate newTransaction;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "quiz-statistics-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public QuizStatisticsService(QuizStatisticsRepository quizStatisticsRepository,
+                                 QuizScoreBucketRepository quizScoreBucketRepository,
+                                 QuizResultRepository quizResultRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.quizStatisticsRepository = quizStatisticsRepository;
+        this.quizScoreBucketRepository = quizScoreBucketRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Builds the aggregates once for databases that already hold results, for example
+     * after upgrading or after rows were inserted without going through this service.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (quizStatisticsRepository.count() == 0 && quizResultRepository.count() > 0) {
+            logger.info("Quiz statistics are empty, scheduling a rebuild");
+            scheduleRebuild();
+        } else if (quizStatisticsRepository.existsByPercentageCountIsNull()) {
+            logger.info("Quiz statistics predate the percentage count, scheduling a rebuild");
+            scheduleRebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @Transactional
+    public void record(QuizResult quizResult) {
+        recordAll(List.of(quizResult));
+    }
+
+    /**
+     * Adds new results to the aggregates with one upsert per quiz and one per touched
+     * histogram bucket. Must run in the transaction that inserts the results.
+     */
+    @Transactional
+    public void recordAll(Collection<QuizResult> quizResults) {
+        // Sorted by quiz id so concurrent batches lock rows in the same order
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (QuizResult result : quizResults) {
+            if (result.getQuizId() != null) {
+                deltas.computeIfAbsent(result.getQuizId(), id -> new Delta()).add(result);
+            }
+        }
+        for (Map.Entry<Long, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            quizStatisticsRepository.addResults(entry.getKey(), delta.quizTitle, delta.attempts,
+                    delta.percentageCount, delta.percentageSum, delta.percentageSquareSum, delta.minScore, delta.maxScore);
+            for (int bucket = 0; bucket < ScoreHistogram.BUCKETS; bucket++) {
+                long attempts = delta.buckets[bucket];
+                if (attempts > 0) {
+                    quizScoreBucketRepository.addAttempts(entry.getKey(), bucket, attempts);
+                }
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getQuizStatistics() {
+        List<Map<String, Object>> statistics = new ArrayList<>();
+        for (QuizStatistics row : quizStatisticsRepository.findAll()) {
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("quizId", row.getQuizId());
+            stat.put("quizTitle", row.getQuizTitle());
+            stat.put("totalAttempts", row.getAttempts());
+            stat.put("averageScore", row.getAveragePercentage());
+            stat.put("standardDeviation", row.getPercentageStandardDeviation());
+            stat.put("highestScore", row.getMaxScore());
+            stat.put("lowestScore", row.getMinScore());
+            statistics.add(stat);
+        }
+        return statistics;
+    }
+
+    /**
+     * Quantiles and histogram of result percentages for a quiz, computed from at most
+     * {@value ScoreHistogram#BUCKETS} stored counters.
+     */
+    @Transactional(readOnly = true)
+    public ScoreDistribution getScoreDistribution(Long quizId, int bucketWidth) {
+        ScoreHistogram histogram = ScoreHistogram.of(quizScoreBucketRepository.findByQuizId(quizId));
+        Map<String, Integer> quantiles = new LinkedHashMap<>();
+        for (double q : REPORTED_QUANTILES) {
+            quantiles.put("p" + Math.round(q * 100), histogram.quantile(q));
+        }
+        long[] counts = histogram.regroup(bucketWidth);
+        List<ScoreDistribution.Bucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            int to = i == counts.length - 1 ? 100 : (i + 1) * bucketWidth - 1;
+            buckets.add(new ScoreDistribution.Bucket(i * bucketWidth, to, counts[i]));
+        }
+        return new ScoreDistribution(quizId, histogram.getTotal(), quantiles, buckets);
+    }
+
+    /**
+     * Starts a background rebuild of all aggregates from {@code quiz_results}.
+     * Returns false if a rebuild is already running.
+     */
+    public boolean scheduleRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Quiz statistics rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Recomputes every aggregate in one transaction, so readers see either the old or
+     * the rebuilt statistics.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        Integer quizzes = newTransaction.execute(status -> {
+            quizStatisticsRepository.deleteAllInBatch();
+            quizScoreBucketRepository.deleteAllInBatch();
+            quizScoreBucketRepository.insertFromResults();
+            return quizStatisticsRepository.insertFromResults();
+        });
+        logger.info("Rebuilt statistics for {} quizzes in {} ms", quizzes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private static final class Delta {
+        private String quizTitle;
+        private long attempts;
+        private long percentageCount;
+        private double percentageSum;
+        private double percentageSquareSum;
+        private Integer minScore;
+        private Integer maxScore;
+        private final long[] buckets = new long[ScoreHistogram.BUCKETS];
+
+        private void add(QuizResult result) {
+            quizTitle = result.getQuizTitle();
+            attempts++;
+            // Like AVG(percentage), results without a percentage count as attempts only
+            Double percentage = result.getPercentage();
+            if (percentage != null) {
+                percentageCount++;
+                percentageSum += percentage;
+                percentageSquareSum += percentage * percentage;
+            }
+            buckets[ScoreHistogram.bucketOf(result.getPercentage())]++;
+            Integer score = result.getScore();
+            if (score != null) {
+                minScore = minScore == null ? score : Math.min(minScore, score);
+                maxScore = maxScore == null ? score : Math.max(maxScore, score);
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package isil.java_quiz_server.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.response.QuizImportReport;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Moves quizzes, with their questions and options, in and out of the server in bulk.
+ *
+ * <p>Two formats are supported. NDJSON has one quiz per line in the same shape that
+ * {@code POST /quizzes} accepts. The SMILE format is a sequence of records, each a
+ * 4-byte big-endian length followed by one quiz encoded as a Smile document (Jackson's
+ * binary JSON); the length lets a reader skip a record it cannot decode and carry on.
+ *
+ * <p>Neither direction holds more than one chunk of quizzes in memory. Imports are
+ * parsed with Jackson's streaming parser and saved in one transaction per chunk; ids in
+ * the input are ignored, so every record becomes a new quiz. Records that cannot be
+ * parsed, fail validation or fail to save are reported by position and skipped.
+ */
+@Service
+public class QuizTransferService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizTransferService.class);
+
+    public enum Format {
+        NDJSON, SMILE;
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final QuizRepository quizRepository;
+    private final QuizService quizService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRecordBytes;
+    private final int maxErrors;
+
+    @Autowired
+    public QuizTransferService(QuizRepository quizRepository, QuizService quizService, EntityManager entityManager,
+                               ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                               @Value("${quiz.transfer.chunk-size:200}") int chunkSize,
+                               @Value("${quiz.transfer.max-record-bytes:1048576}") int maxRecordBytes,
+                               @Value("${quiz.transfer.max-errors:100}") int maxErrors) {
+        this.quizRepository = quizRepository;
+        this.quizService = quizService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.smileMapper = WireFormat.SMILE.mapperFrom(objectMapper);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRecordBytes = maxRecordBytes;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Streams every quiz, ordered by id, loading {@code chunk-size} quizzes at a time.
+     * Returns the number of quizzes written. The caller owns and closes {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        logger.debug("Exporting quizzes: format={}", format);
+        long quizzes = 0;
+        DataOutputStream records = format == Format.SMILE ? new DataOutputStream(new BufferedOutputStream(out)) : null;
+        try (JsonGenerator generator = format == Format.NDJSON ? objectMapper.getFactory().createGenerator(out) : null) {
+            if (generator != null) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+            }
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = quizRepository.findIdsAfter(afterId, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Quiz quiz : quizRepository.findGraphsByIdIn(ids)) {
+                    if (generator != null) {
+                        objectMapper.writeValue(generator, quiz);
+                        generator.writeRaw('\n');
+                    } else {
+                        byte[] record = smileMapper.writeValueAsBytes(quiz);
+                        records.writeInt(record.length);
+                        records.write(record);
+                    }
+                    quizzes++;
+                }
+                // Keep the persistence context to one chunk
+                entityManager.clear();
+                afterId = ids.get(ids.size() - 1);
+            }
+        }
+        if (records != null) {
+            records.flush();
+        }
+        logger.info("Exported {} quizzes as {}", quizzes, format);
+        return quizzes;
+    }
+
+    /**
+     * Reads quizzes from {@code in} until it ends and saves the valid ones. The caller
+     * owns and closes {@code in}.
+     */
+    public QuizImportReport importQuizzes(Format format, InputStream in) throws IOException {
+        logger.debug("Importing quizzes: format={}", format);
+        Import batch = new Import();
+        if (format == Format.SMILE) {
+            readSmileRecords(in, batch);
+        } else {
+            readNdjson(in, batch);
+        }
+        batch.flush();
+        // Save failures are only known once their chunk is written, after later parse errors
+        batch.errors.sort(Comparator.comparingLong(QuizImportReport.RecordError::getRecord));
+        logger.info("Imported {} of {} quizzes as {}: failed={}, complete={}", batch.imported, batch.records, format,
+                batch.failed, batch.complete);
+        return new QuizImportReport(batch.records, batch.imported, batch.failed, batch.complete, batch.errors);
+    }
+
+    private void readNdjson(InputStream in, Import batch) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            while (true) {
+                long record = batch.records + 1;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null) {
+                        return;
+                    }
+                    batch.records = record;
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        batch.fail(record, "expected a JSON object");
+                        continue;
+                    }
+                    try {
+                        batch.add(record, objectMapper.readValue(parser, Quiz.class));
+                    } catch (DatabindException | InputCoercionException e) {
+                        // Well-formed but the wrong shape: skip the rest of this record
+                        batch.fail(record, describe(e));
+                        while (!parser.getParsingContext().inRoot()) {
+                            parser.nextToken();
+                        }
+                    }
+                } catch (JsonParseException e) {
+                    // Malformed JSON leaves no reliable point to resume from
+                    batch.abort(record, describe(e));
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readSmileRecords(InputStream in, Import batch) throws IOException {
+        DataInputStream records = new DataInputStream(in);
+        byte[] buffer = new byte[8192];
+        while (true) {
+            int first = records.read();
+            if (first < 0) {
+                return;
+            }
+            long record = ++batch.records;
+            int length;
+            try {
+                length = first << 24 | records.readUnsignedByte() << 16 | records.readUnsignedShort();
+            } catch (EOFException e) {
+                batch.abort(record, "stream ends inside a record length");
+                return;
+            }
+            if (length < 0) {
+                batch.abort(record, "record length " + Integer.toUnsignedString(length) + " is not supported");
+                return;
+            }
+            if (length > maxRecordBytes) {
+                try {
+                    records.skipNBytes(length);
+                } catch (EOFException e) {
+                    batch.abort(record, "stream ends inside a record");
+                    return;
+                }
+                batch.fail(record, "record of " + length + " bytes exceeds the limit of " + maxRecordBytes);
+                continue;
+            }
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            try {
+                records.readFully(buffer, 0, length);
+            } catch (EOFException e) {
+                batch.abort(record, "stream ends inside a record");
+                return;
+            }
+            try {
+                batch.add(record, smileMapper.readValue(buffer, 0, length, Quiz.class));
+            } catch (JsonProcessingException e) {
+                batch.fail(record, describe(e));
+            }
+        }
+    }
+
+    private static String describe(JsonProcessingException e) {
+        JsonLocation location = e.getLocation();
+        if (location == null || location.getLineNr() < 1) {
+            return e.getOriginalMessage();
+        }
+        return e.getOriginalMessage() + " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")";
+    }
+
+    /**
+     * Validates the same fields {@code POST /quizzes} and the schema require; returns null
+     * when the quiz can be saved.
+     */
+    private static String validate(Quiz quiz) {
+        if (quiz.getTitle() == null || quiz.getUsername() == null) {
+            return "title and username are required";
+        }
+        for (int i = 0; i < quiz.getQuestions().size(); i++) {
+            Question question = quiz.getQuestions().get(i);
+            if (question == null || question.getCorrectOption() == null) {
+                return "question " + (i + 1) + " has no correct option";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes an imported record a new quiz: ids carried over from another server, or
+     * assigned by a rolled back insert, must not be merged into existing rows, and
+     * collections Hibernate wrapped during a failed save must not be reused.
+     */
+    private static void prepareInsert(Quiz quiz) {
+        quiz.setId(null);
+        quiz.setQuestions(new ArrayList<>(quiz.getQuestions()));
+        for (Question question : quiz.getQuestions()) {
+            question.setId(null);
+            if (question.getOptions() != null) {
+                question.setOptions(new ArrayList<>(question.getOptions()));
+            }
+        }
+    }
+
+    /**
+     * The state of one import: counts, the reported errors and the chunk waiting to be saved.
+     */
+    private final class Import {
+        private final List<Quiz> chunk = new ArrayList<>();
+        private final List<Long> chunkRecords = new ArrayList<>();
+        private final List<QuizImportReport.RecordError> errors = new ArrayList<>();
+        private long records;
+        private long imported;
+        private long failed;
+        private boolean complete = true;
+
+        void add(long record, Quiz quiz) {
+            if (quiz.getQuestions() == null) {
+                quiz.setQuestions(new ArrayList<>());
+            }
+            String invalid = validate(quiz);
+            if (invalid != null) {
+                fail(record, invalid);
+                return;
+            }
+            prepareInsert(quiz);
+            chunk.add(quiz);
+            chunkRecords.add(record);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> quizService.saveQuizzes(chunk));
+                imported += chunk.size();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to save a chunk of {} imported quizzes, saving them one at a time", chunk.size(), e);
+                entityManager.clear();
+                saveOneByOne();
+            }
+            // Each chunk commits in its own persistence context unless the caller has bound one
+            // (an enclosing transaction, or open-in-view switched back on); keep that to one chunk
+            entityManager.clear();
+            chunk.clear();
+            chunkRecords.clear();
+        }
+
+        private void saveOneByOne() {
+            for (int i = 0; i < chunk.size(); i++) {
+                Quiz quiz = chunk.get(i);
+                prepareInsert(quiz);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> quizService.saveQuiz(quiz));
+                    imported++;
+                } catch (RuntimeException e) {
+                    fail(chunkRecords.get(i), "could not be saved: "
+                            + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+
+        void fail(long record, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new QuizImportReport.RecordError(record, message));
+            }
+        }
+
+        /**
+         * Stops the import at a record after which the stream cannot be read; always
+         * reported, even past {@code max-errors}.
+         */
+        void abort(long record, String message) {
+            records = Math.max(records, record);
+            failed++;
+            complete = false;
+            errors.add(new QuizImportReport.RecordError(record, message));
+        }
+    }
+}
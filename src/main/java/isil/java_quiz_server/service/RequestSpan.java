@@ -0,0 +1,292 @@
+package isil.java_quiz_server.service;
+
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * What one HTTP request did, bound to the thread serving it: its trace id (also put in
+ * the logging MDC as {@code traceId}), the repository calls it made and the SQL
+ * statements it ran. Work done on other threads, such as write-behind flushes or
+ * streamed exports, is not attributed to the request.
+ *
+ * <p>Statements are also grouped by shape, the SQL with its literals and parameter lists
+ * collapsed, so a request that runs the same query once per row (an N+1) shows up as
+ * one shape with a high count. A handler can declare a statement budget that the span
+ * is checked against when the request ends.
+ */
+public final class RequestSpan {
+    public static final String MDC_KEY = "traceId";
+    private static final ThreadLocal<RequestSpan> CURRENT = new ThreadLocal<>();
+    // Bounds the memory a request running generated SQL can take
+    private static final int MAX_SHAPES = 64;
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(?:\\s*,\\s*\\?)+\\)");
+
+    private final String traceId;
+    private final String method;
+    private final String path;
+    private final long startNanos = System.nanoTime();
+    private final int maxStatements;
+    private final List<Statement> statements;
+    private Map<String, Shape> shapes;
+    private int statementCount;
+    private long statementNanos;
+    private int slowStatementCount;
+    private int statementBudget = -1;
+    private int repositoryCalls;
+    private long repositoryNanos;
+
+    private RequestSpan(String traceId, String method, String path, int maxStatements) {
+        this.traceId = traceId;
+        this.method = method;
+        this.path = path;
+        this.maxStatements = maxStatements;
+        this.statements = new ArrayList<>(Math.min(maxStatements, 16));
+    }
+
+    /**
+     * Starts a span on this thread; it keeps the first {@code maxStatements} statements.
+     */
+    public static RequestSpan start(String traceId, String method, String path, int maxStatements) {
+        RequestSpan span = new RequestSpan(traceId, method, path, maxStatements);
+        CURRENT.set(span);
+        MDC.put(MDC_KEY, traceId);
+        return span;
+    }
+
+    /**
+     * The span of the request this thread is serving, or null.
+     */
+    public static RequestSpan current() {
+        return CURRENT.get();
+    }
+
+    public void finish() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    public void addStatement(String sql, long nanos, boolean slow) {
+        statementCount++;
+        statementNanos += nanos;
+        if (slow) {
+            slowStatementCount++;
+        }
+        if (statements.size() < maxStatements) {
+            statements.add(new Statement(sql, nanos));
+        }
+        if (sql == null) {
+            return;
+        }
+        if (shapes == null) {
+            shapes = new HashMap<>();
+        }
+        String shape = shapeOf(sql);
+        Shape counted = shapes.get(shape);
+        if (counted == null) {
+            if (shapes.size() == MAX_SHAPES) {
+                return;
+            }
+            counted = new Shape(shape);
+            shapes.put(shape, counted);
+        }
+        counted.count++;
+        counted.nanos += nanos;
+    }
+
+    /**
+     * The SQL with string and numeric literals replaced by {@code ?}, whitespace collapsed,
+     * keywords lower-cased and parameter lists such as {@code IN (?, ?, ...)} or multi-row
+     * {@code VALUES} reduced to {@code (?)}, so the same query with different arguments or
+     * batch sizes has one shape.
+     */
+    public static String shapeOf(String sql) {
+        StringBuilder shape = new StringBuilder(sql.length());
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = shape.length() > 0;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                shape.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                shape.append('?');
+                i++;
+            } else if (Character.isDigit(c) && !isIdentifierEnd(shape)) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                shape.append('?');
+            } else {
+                shape.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return shape.indexOf(",") < 0 ? shape.toString() : IN_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder shape) {
+        if (shape.length() == 0) {
+            return false;
+        }
+        char last = shape.charAt(shape.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    /**
+     * Shapes that ran at least {@code threshold} times, most frequent first.
+     */
+    public List<Shape> getRepeatedShapes(int threshold) {
+        if (shapes == null) {
+            return List.of();
+        }
+        List<Shape> repeated = new ArrayList<>();
+        for (Shape shape : shapes.values()) {
+            if (shape.count >= threshold) {
+                repeated.add(shape);
+            }
+        }
+        repeated.sort((a, b) -> Integer.compare(b.count, a.count));
+        return repeated;
+    }
+
+    public void addRepositoryCall(long nanos) {
+        repositoryCalls++;
+        repositoryNanos += nanos;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public int getSlowStatementCount() {
+        return slowStatementCount;
+    }
+
+    /**
+     * Sets how many statements the request may run; negative means no budget.
+     */
+    public void setStatementBudget(int statementBudget) {
+        this.statementBudget = statementBudget;
+    }
+
+    public int getStatementBudget() {
+        return statementBudget;
+    }
+
+    public boolean isOverBudget() {
+        return statementBudget >= 0 && statementCount > statementBudget;
+    }
+
+    /**
+     * One line describing the statements the request ran, for logs and test failures.
+     */
+    public String describeStatements(int repeatedThreshold) {
+        StringBuilder description = new StringBuilder();
+        description.append(method).append(' ').append(path).append(" ran ").append(statementCount)
+                .append(" statements");
+        if (statementBudget >= 0) {
+            description.append(" (budget ").append(statementBudget).append(')');
+        }
+        for (Shape shape : getRepeatedShapes(repeatedThreshold)) {
+            description.append("; ").append(shape.count).append("x ").append(shape.sql);
+        }
+        return description.toString();
+    }
+
+    public int getRepositoryCalls() {
+        return repositoryCalls;
+    }
+
+    public long getRepositoryNanos() {
+        return repositoryNanos;
+    }
+
+    public List<Statement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    public static final class Shape {
+        private final String sql;
+        private int count;
+        private long nanos;
+
+        private Shape(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    public static final class Statement {
+        private final String sql;
+        private final long nanos;
+
+        private Statement(String sql, long nanos) {
+            this.sql = sql;
+            this.nanos = nanos;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
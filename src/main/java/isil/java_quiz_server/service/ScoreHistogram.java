@@ -0,0 +1,71 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizScoreBucket;
+
+import java.util.Collection;
+
+/**
+ * Fixed histogram of result percentages with one counter per whole percentage point
+ * (0 to 100). Quantiles are exact to the percentage point.
+ */
+public final class ScoreHistogram {
+    public static final int BUCKETS = 101;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    public static int bucketOf(Double percentage) {
+        if (percentage == null || percentage.isNaN()) {
+            return 0;
+        }
+        return (int) Math.max(0, Math.min(100, Math.floor(percentage)));
+    }
+
+    public static ScoreHistogram of(Collection<QuizScoreBucket> buckets) {
+        ScoreHistogram histogram = new ScoreHistogram();
+        for (QuizScoreBucket bucket : buckets) {
+            histogram.add(bucket.getBucket(), bucket.getAttempts());
+        }
+        return histogram;
+    }
+
+    public void add(int bucket, long attempts) {
+        counts[bucket] += attempts;
+        total += attempts;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Nearest-rank quantile: the lowest percentage point at or below which at least
+     * {@code q} of the results fall. Returns null when the histogram is empty.
+     */
+    public Integer quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        long target = Math.max(1, (long) Math.ceil(q * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return i;
+            }
+        }
+        return BUCKETS - 1;
+    }
+
+    /**
+     * Counts regrouped into buckets {@code width} percentage points wide; the last
+     * bucket also holds perfect scores.
+     */
+    public long[] regroup(int width) {
+        long[] grouped = new long[(100 + width - 1) / width];
+        for (int i = 0; i < BUCKETS; i++) {
+            grouped[Math.min(i / width, grouped.length - 1)] += counts[i];
+        }
+        return grouped;
+    }
+}
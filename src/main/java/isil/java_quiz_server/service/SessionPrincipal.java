@@ -0,0 +1,39 @@
+package isil.java_quiz_server.service;
+
+import java.time.Instant;
+
+/**
+ * The identity carried by a verified session token. Request handlers find it under
+ * {@link #ATTRIBUTE} when the request presented a valid token.
+ */
+public final class SessionPrincipal {
+    public static final String ATTRIBUTE = "isil.java_quiz_server.service.SessionPrincipal";
+
+    private final Long userId;
+    private final String username;
+    private final boolean teacher;
+    private final Instant expiresAt;
+
+    public SessionPrincipal(Long userId, String username, boolean teacher, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.teacher = teacher;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isTeacher() {
+        return teacher;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,142 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies stateless session tokens: {@code base64url(claims).base64url(hmac)}.
+ * The claims hold the user id, username, teacher flag and expiry, so verifying a token
+ * needs no database access.
+ *
+ * <p>The signing key rotates every {@code key-rotation} period and tokens name the key
+ * that signed them; tokens from the current and the previous period verify. With
+ * {@code quiz.security.token.secret} set, every instance derives the same key for a
+ * period; otherwise keys are random per process and a restart ends all sessions.
+ */
+@Service
+public class SessionTokenService {
+    private static final String HMAC = "HmacSHA256";
+    private static final String VERSION = "1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final long rotationSeconds;
+    private final byte[] secret;
+    private final Map<Long, SecretKeySpec> keys = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionTokenService(@Value("${quiz.security.token.ttl:PT8H}") Duration ttl,
+                               @Value("${quiz.security.token.key-rotation:PT12H}") Duration keyRotation,
+                               @Value("${quiz.security.token.secret:}") String secret) {
+        this(Clock.systemUTC(), ttl, keyRotation, secret);
+    }
+
+    SessionTokenService(Clock clock, Duration ttl, Duration keyRotation, String secret) {
+        if (ttl.compareTo(keyRotation) > 0) {
+            // Only the previous key is kept, so a token must expire within one rotation
+            throw new IllegalArgumentException("Token ttl must not exceed the key rotation period");
+        }
+        this.clock = clock;
+        this.ttl = ttl;
+        this.rotationSeconds = keyRotation.toSeconds();
+        this.secret = secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String issue(User user) {
+        Instant now = clock.instant();
+        long keyId = now.getEpochSecond() / rotationSeconds;
+        String claims = String.join("|", VERSION, Long.toString(keyId), Long.toString(user.getId()),
+                Boolean.TRUE.equals(user.getIs_teacher()) ? "1" : "0",
+                Long.toString(now.plus(ttl).getEpochSecond()), user.getUsername());
+        byte[] claimBytes = claims.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(claimBytes) + "." + ENCODER.encodeToString(sign(keyId, claimBytes));
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * The principal in a token, or null if the token is malformed, forged, signed with a
+     * retired key or expired.
+     */
+    public SessionPrincipal verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        try {
+            byte[] claimBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            String[] claims = new String(claimBytes, StandardCharsets.UTF_8).split("\\|", 6);
+            if (claims.length != 6 || !VERSION.equals(claims[0])) {
+                return null;
+            }
+            long keyId = Long.parseLong(claims[1]);
+            long currentKeyId = clock.instant().getEpochSecond() / rotationSeconds;
+            if (keyId != currentKeyId && keyId != currentKeyId - 1) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(signature, sign(keyId, claimBytes))) {
+                return null;
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(claims[4]));
+            if (!clock.instant().isBefore(expiresAt)) {
+                return null;
+            }
+            return new SessionPrincipal(Long.parseLong(claims[2]), claims[5], "1".equals(claims[3]), expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(long keyId, byte[] claims) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(keyFor(keyId));
+            return mac.doFinal(claims);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    private SecretKeySpec keyFor(long keyId) {
+        SecretKeySpec key = keys.computeIfAbsent(keyId, this::createKey);
+        // Keep only the keys that can still verify a token
+        keys.keySet().removeIf(id -> id < keyId - 1);
+        return key;
+    }
+
+    private SecretKeySpec createKey(long keyId) {
+        if (secret == null) {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return new SecretKeySpec(random, HMAC);
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret, HMAC));
+            return new SecretKeySpec(mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(keyId).array()), HMAC);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted quiz result submissions, split into segment files.
+ * Each record is framed as {@code [length][crc32][payload]}, so a record torn by a
+ * crash is detected on recovery and cut off. Writers share fsyncs: whoever finds its
+ * record not yet durable forces the channel for every record appended so far.
+ * A segment is deleted once it has been rotated out and all of its records have been
+ * confirmed as persisted in the database.
+ */
+public class SubmissionJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    // Locks rather than monitors, so a virtual thread blocked on file I/O here does not pin its carrier
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private long lastSequence;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncDone = syncLock.newCondition();
+    private long syncedSequence;
+    private boolean syncing;
+
+    private final List<Path> recoveredSegments = new ArrayList<>();
+
+    public SubmissionJournal(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Reads every intact record left by a previous run, truncating a torn tail, and
+     * opens a fresh segment for new records. The old segments stay on disk until
+     * {@link #discardRecovered()} is called after their records have been replayed.
+     */
+    public List<QuizResult> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<QuizResult> recovered = new ArrayList<>();
+        long maxSequence = 0;
+        for (Path path : listSegments()) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            int records = 0;
+            while (buffer.remaining() > 0) {
+                int start = buffer.position();
+                Record record = readRecord(buffer);
+                if (record == null) {
+                    logger.warn("Truncating torn journal record in {} at offset {}", path.getFileName(), start);
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.truncate(start);
+                        channel.force(true);
+                    }
+                    break;
+                }
+                recovered.add(record.result);
+                maxSequence = Math.max(maxSequence, record.sequence);
+                records++;
+            }
+            if (records == 0) {
+                // Nothing to replay, and its name may be the one the new active segment takes
+                Files.delete(path);
+            } else {
+                recoveredSegments.add(path);
+            }
+        }
+        appendLock.lock();
+        try {
+            lastSequence = maxSequence;
+            syncedSequence = maxSequence;
+            active = openSegment(maxSequence + 1);
+        } finally {
+            appendLock.unlock();
+        }
+        logger.info("Recovered {} journaled submissions from {} segments", recovered.size(), recoveredSegments.size());
+        return recovered;
+    }
+
+    public void discardRecovered() throws IOException {
+        for (Path path : recoveredSegments) {
+            Files.deleteIfExists(path);
+        }
+        recoveredSegments.clear();
+    }
+
+    /**
+     * Appends a result and returns its sequence number. The record is not durable
+     * until {@link #awaitDurable(long)} returns for that sequence.
+     */
+    public long append(QuizResult result) throws IOException {
+        byte[] payload;
+        appendLock.lock();
+        try {
+            reopenIfClosed();
+            long sequence = lastSequence + 1;
+            payload = encode(sequence, result);
+            if (active.size > 0 && active.size + HEADER_BYTES + payload.length > segmentBytes) {
+                rotate(sequence);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+            frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            while (frame.hasRemaining()) {
+                active.channel.write(frame);
+            }
+            active.size += frame.limit();
+            active.appended++;
+            lastSequence = sequence;
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence has been forced to disk. One
+     * caller performs the fsync; callers arriving meanwhile wait for the next one.
+     * Throws if the sync did not happen, including when the calling thread is
+     * interrupted during it.
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        syncLock.lock();
+        try {
+            while (syncedSequence < sequence && syncing) {
+                try {
+                    syncDone.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for journal sync", e);
+                }
+            }
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            syncing = true;
+        } finally {
+            syncLock.unlock();
+        }
+        long target = 0;
+        boolean synced = false;
+        try {
+            while (!synced) {
+                Segment segment;
+                FileChannel channel;
+                appendLock.lock();
+                try {
+                    reopenIfClosed();
+                    target = lastSequence;
+                    segment = active;
+                    channel = segment.channel;
+                } finally {
+                    appendLock.unlock();
+                }
+                try {
+                    channel.force(false);
+                    synced = true;
+                } catch (ClosedChannelException e) {
+                    if (isSealed(segment)) {
+                        // The segment was rotated meanwhile, and rotation forces it before closing
+                        synced = true;
+                    } else if (Thread.currentThread().isInterrupted()) {
+                        throw new IOException("Interrupted while syncing the journal", e);
+                    }
+                    // Otherwise another thread's interrupt closed the channel; reopen it and force again
+                }
+            }
+        } finally {
+            syncLock.lock();
+            try {
+                syncing = false;
+                if (synced) {
+                    syncedSequence = Math.max(syncedSequence, target);
+                }
+                syncDone.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Marks a record as persisted in the database, deleting its segment once the
+     * segment is no longer written to and every record in it is confirmed.
+     */
+    public void confirm(long sequence) {
+        appendLock.lock();
+        try {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (entry == null) {
+                return;
+            }
+            Segment segment = entry.getValue();
+            segment.confirmed++;
+            if (segment != active && segment.confirmed >= segment.appended) {
+                deleteSegment(segment);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public int getSegmentCount() {
+        appendLock.lock();
+        try {
+            return segments.size();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the journal. The active segment is deleted if everything in it has been
+     * confirmed, so a clean shutdown leaves nothing to replay.
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (active == null) {
+                return;
+            }
+            reopenIfClosed();
+            active.channel.force(true);
+            active.channel.close();
+            if (active.confirmed >= active.appended) {
+                deleteSegment(active);
+            }
+            active = null;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void rotate(long nextSequence) throws IOException {
+        Segment sealed = active;
+        sealed.channel.force(false);
+        sealed.sealed = true;
+        sealed.channel.close();
+        active = openSegment(nextSequence);
+        if (sealed.confirmed >= sealed.appended) {
+            deleteSegment(sealed);
+        }
+    }
+
+    private Segment openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        // Never reuse a name: an existing file could hold records still to be replayed
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        Segment segment = new Segment(path, channel);
+        segments.put(firstSequence, segment);
+        return segment;
+    }
+
+    /**
+     * An interrupt during a write or force closes the channel, which would fail every
+     * later append. Reopens the active segment, cutting off any partly written record.
+     */
+    private void reopenIfClosed() throws IOException {
+        if (active.channel.isOpen()) {
+            return;
+        }
+        logger.warn("Reopening journal segment {} after its channel was closed", active.path.getFileName());
+        FileChannel channel = FileChannel.open(active.path, StandardOpenOption.WRITE);
+        channel.truncate(active.size);
+        channel.position(active.size);
+        active.channel = channel;
+    }
+
+    private boolean isSealed(Segment segment) {
+        appendLock.lock();
+        try {
+            return segment.sealed;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.values().remove(segment);
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        // Zero-padded sequence numbers sort in append order
+        paths.sort(null);
+        return paths;
+    }
+
+    private static Record readRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES || length > buffer.remaining()) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        try {
+            return decode(ByteBuffer.wrap(payload));
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encode(long sequence, QuizResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(sequence);
+        writeString(out, result.getSubmissionId());
+        writeLong(out, result.getUserId());
+        writeString(out, result.getUsername());
+        writeLong(out, result.getQuizId());
+        writeString(out, result.getQuizTitle());
+        writeInt(out, result.getScore());
+        writeInt(out, result.getTotalQuestions());
+        out.writeBoolean(result.getPercentage() != null);
+        if (result.getPercentage() != null) {
+            out.writeDouble(result.getPercentage());
+        }
+        out.writeBoolean(result.getCompletedAt() != null);
+        if (result.getCompletedAt() != null) {
+            out.writeLong(result.getCompletedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(result.getCompletedAt().getNano());
+        }
+        writeInt(out, result.getTimeTakenSeconds());
+        return bytes.toByteArray();
+    }
+
+    private static Record decode(ByteBuffer in) {
+        long sequence = in.getLong();
+        QuizResult result = new QuizResult();
+        result.setSubmissionId(readString(in));
+        result.setUserId(readLong(in));
+        result.setUsername(readString(in));
+        result.setQuizId(readLong(in));
+        result.setQuizTitle(readString(in));
+        result.setScore(readInt(in));
+        Integer totalQuestions = readInt(in);
+        if (totalQuestions != null) {
+            result.setTotalQuestions(totalQuestions);
+        }
+        result.setPercentage(in.get() != 0 ? in.getDouble() : null);
+        result.setCompletedAt(in.get() != 0
+                ? LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC) : null);
+        result.setTimeTakenSeconds(readInt(in));
+        return new Record(sequence, result);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    private static Integer readInt(ByteBuffer in) {
+        return in.get() != 0 ? in.getInt() : null;
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private FileChannel channel;
+        private long size;
+        // Forced and closed by rotation, so a closed channel means its records are durable
+        private boolean sealed;
+        private int appended;
+        private int confirmed;
+
+        private Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    private static final class Record {
+        private final long sequence;
+        private final QuizResult result;
+
+        private Record(long sequence, QuizResult result) {
+            this.sequence = sequence;
+            this.result = result;
+        }
+    }
+}
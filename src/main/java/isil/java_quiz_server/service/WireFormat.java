@@ -0,0 +1,83 @@
+package isil.java_quiz_server.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The encodings the REST layer can answer in: JSON, and the binary CBOR and Smile
+ * encodings of the same data model, which are smaller and cheaper to parse on slow
+ * clients. Field names and values are identical across the three.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.APPLICATION_CBOR, CBORFactory::new),
+    SMILE(new MediaType("application", "x-jackson-smile"), SmileFactory::new);
+
+    private final MediaType mediaType;
+    private final Supplier<JsonFactory> factory;
+
+    WireFormat(MediaType mediaType, Supplier<JsonFactory> factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * A mapper for this format with the modules and settings of the given JSON mapper.
+     */
+    public ObjectMapper mapperFrom(ObjectMapper jsonMapper) {
+        return factory == null ? jsonMapper : jsonMapper.copyWith(factory.get());
+    }
+
+    /**
+     * The format to answer a request with the given Accept header in, or null when none
+     * is acceptable. As in RFC 9110, each format takes the quality of the most specific
+     * range that matches it, so {@code application/json;q=0, *}{@code /*} picks CBOR;
+     * JSON wins ties.
+     */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        WireFormat best = null;
+        double bestQuality = 0;
+        for (WireFormat format : values()) {
+            double quality = qualityOf(format.mediaType, acceptable);
+            if (quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static double qualityOf(MediaType mediaType, List<MediaType> acceptable) {
+        MediaType match = null;
+        for (MediaType range : acceptable) {
+            if (range.includes(mediaType) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        return match == null ? 0 : match.getQualityValue();
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+}
@@ -0,0 +1,76 @@
+package isil.java_quiz_server.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Small chunks and statements so every table is written by several writers, with short
+ * final statements. H2's MySQL mode hands out duplicate identity values to concurrent
+ * inserts, so this test runs H2 in its own mode.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk-seeder;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "quiz.seed.bulk.writers=3",
+        "quiz.seed.bulk.rows-per-insert=7",
+        "quiz.seed.bulk.rows-per-transaction=300"
+})
+class BulkSeederTests {
+
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private BulkSeeder bulkSeeder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedsConsistentRowsThatTheSeedReproduces() {
+        BulkSeeder.Report report = bulkSeeder.seed(plan("bulk_a_", "Bulk A "));
+
+        assertEquals(Map.of("user", 50L, "quizzes", 4L, "questions", 12L, "question_options", 48L,
+                "quiz_results", 2000L), report.getTableRows());
+        assertEquals(2114, report.getRows());
+        assertEquals("bulk_a_17", jdbcTemplate.queryForObject("select username from user where id = ?",
+                String.class, report.getUserId(17)));
+        assertEquals(2000, count("select count(*) from quiz_results r join user u on u.id = r.user_id"
+                + " and u.username = r.username join quizzes q on q.id = r.quiz_id and q.title = r.quiz_title"
+                + " where r.username like 'bulk\\_a\\_%'"));
+        assertEquals(12, count("select count(*) from questions q join quizzes z on z.id = q.quiz_id"
+                + " where z.title like 'Bulk A %' and q.correct_option in"
+                + " (select o.option_text from question_options o where o.question_id = q.id)"));
+
+        bulkSeeder.seed(plan("bulk_b_", "Bulk B "));
+        assertEquals(results("bulk_a_", "Bulk A "), results("bulk_b_", "Bulk B "));
+    }
+
+    private static BulkSeeder.Plan plan(String usernamePrefix, String quizTitlePrefix) {
+        return new BulkSeeder.Plan(usernamePrefix, quizTitlePrefix, "teacher", "password123", 50, 4, 3, 2000, 7L,
+                UNTIL);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    /**
+     * The plan's results with the prefixes stripped, in a fixed order.
+     */
+    private List<String> results(String usernamePrefix, String quizTitlePrefix) {
+        return jdbcTemplate.query("select username, quiz_title, score, completed_at, time_taken_seconds"
+                        + " from quiz_results where username like ?", (rs, n) ->
+                        rs.getString(1).substring(usernamePrefix.length()) + "|"
+                                + rs.getString(2).substring(quizTitlePrefix.length()) + "|" + rs.getInt(3) + "|"
+                                + rs.getTimestamp(4) + "|" + rs.getInt(5),
+                        usernamePrefix.replace("_", "\\_") + "%")
+                .stream().sorted().toList();
+    }
+}
@@ -0,0 +1,84 @@
+package isil.java_quiz_server.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadFilterTests {
+
+    @Test
+    void requestsAreClassifiedByEndpoint() {
+        assertEquals(BulkheadFilter.Compartment.SUBMISSIONS,
+                BulkheadFilter.classify(new MockHttpServletRequest("POST", "/quizzes/1/submissions")));
+        assertEquals(BulkheadFilter.Compartment.SUBMISSIONS,
+                BulkheadFilter.classify(new MockHttpServletRequest("POST", "/quiz-results")));
+        assertEquals(BulkheadFilter.Compartment.READS,
+                BulkheadFilter.classify(new MockHttpServletRequest("GET", "/quizzes/1")));
+        assertEquals(BulkheadFilter.Compartment.ANALYTICS,
+                BulkheadFilter.classify(new MockHttpServletRequest("GET", "/quiz-statistics")));
+        assertEquals(BulkheadFilter.Compartment.ANALYTICS,
+                BulkheadFilter.classify(new MockHttpServletRequest("GET", "/quiz-results/export")));
+        assertEquals(BulkheadFilter.Compartment.ANALYTICS,
+                BulkheadFilter.classify(new MockHttpServletRequest("POST", "/quizzes/import")));
+        assertEquals(BulkheadFilter.Compartment.LOGIN,
+                BulkheadFilter.classify(new MockHttpServletRequest("POST", "/login")));
+    }
+
+    @Test
+    void fullCompartmentShedsLoadWithoutTouchingTheOthers() throws Exception {
+        BulkheadFilter filter = new BulkheadFilter(true, 10, 0, 0, 1, 0, 20, 20);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread slowDashboard = new Thread(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/quiz-statistics"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            entered.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        slowDashboard.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/quiz-statistics"), shed, (request, response) -> { });
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+
+        MockHttpServletResponse submission = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/quizzes/1/submissions"), submission,
+                (request, response) -> ((MockHttpServletResponse) response).setStatus(202));
+        assertEquals(202, submission.getStatus());
+
+        release.countDown();
+        slowDashboard.join();
+        assertEquals(1L, filter.getStatus().get("analytics").get("rejected"));
+        assertEquals(0, filter.getStatus().get("analytics").get("inUse"));
+    }
+
+    @Test
+    void derivedCompartmentsLeaveRoomInThePoolForLogins() {
+        BulkheadFilter filter = new BulkheadFilter(true, 20, 0, 0, 0, 4, 20, 20);
+
+        int dataCompartments = 0;
+        for (String compartment : new String[] {"submissions", "reads", "analytics"}) {
+            dataCompartments += (Integer) filter.getStatus().get(compartment).get("limit");
+        }
+        assertEquals(18, dataCompartments);
+        assertEquals(4, filter.getStatus().get("login").get("limit"));
+    }
+}
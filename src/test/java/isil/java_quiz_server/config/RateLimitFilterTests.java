@@ -0,0 +1,90 @@
+package isil.java_quiz_server.config;
+
+import isil.java_quiz_server.service.SessionPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTests {
+
+    @Test
+    void bucketAllowsBurstsAndRefillsAtTheConfiguredRate() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, Duration.ofSeconds(3), Duration.ofMinutes(1),
+                100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("10.0.0.1"));
+        assertEquals(2, limiter.getRejected());
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, Duration.ofSeconds(5), Duration.ofMinutes(1),
+                100, now::get);
+        limiter.tryAcquire("idle");
+        now.addAndGet(Duration.ofSeconds(50).toNanos());
+        limiter.tryAcquire("active");
+        assertEquals(2, limiter.getTrackedKeys());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        limiter.tryAcquire("active");
+        assertEquals(1, limiter.getTrackedKeys());
+    }
+
+    @Test
+    void limitSpecsAreParsed() {
+        assertEquals("60/PT1M", TokenBucketRateLimiter.parse("60/PT1M", Duration.ofMinutes(1), 10).toString());
+        assertNull(TokenBucketRateLimiter.parse(" ", Duration.ofMinutes(1), 10));
+        assertNull(RateLimitFilter.classify(new MockHttpServletRequest("GET", "/quizzes/1")));
+        assertEquals(RateLimitFilter.Endpoint.SUBMISSIONS,
+                RateLimitFilter.classify(new MockHttpServletRequest("POST", "/quizzes/1/submissions")));
+    }
+
+    @Test
+    void throttledClientsGet429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(true, "", "", "", "2/PT1M", "1/PT1M", Duration.ofMinutes(10), 100);
+
+        assertEquals(200, submit(filter, "10.0.0.1", null).getStatus());
+        assertEquals(200, submit(filter, "10.0.0.1", null).getStatus());
+        MockHttpServletResponse throttled = submit(filter, "10.0.0.1", null);
+        assertEquals(429, throttled.getStatus());
+        assertEquals("30", throttled.getHeader("Retry-After"));
+
+        // A signed-in user is also limited on their own, whichever address they use
+        assertEquals(200, submit(filter, "10.0.0.2", "ana").getStatus());
+        assertEquals(429, submit(filter, "10.0.0.3", "ana").getStatus());
+        assertTrue(filter.getStatus().containsKey("submissions.per-username"));
+        assertEquals(0, filter.acquireForUsername(RateLimitFilter.Endpoint.LOGIN, "ana"));
+    }
+
+    private static MockHttpServletResponse submit(RateLimitFilter filter, String address, String username)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/quiz-results");
+        request.setRemoteAddr(address);
+        if (username != null) {
+            request.setAttribute(SessionPrincipal.ATTRIBUTE,
+                    new SessionPrincipal(1L, username, false, Instant.now().plusSeconds(60)));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+}
@@ -0,0 +1,112 @@
+package isil.java_quiz_server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import isil.java_quiz_server.service.QuizResultService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against two independent in-memory databases. Nothing replicates between them, so
+ * the test writes the replica's heartbeat itself to simulate a replica in sync or lagging.
+ */
+@SpringBootTest(properties = {
+        "quiz.datasource.replica.urls=" + ReplicaRoutingDataSourceTests.REPLICA_URL,
+        "quiz.datasource.replica.check-interval-ms=3600000",
+        "quiz.datasource.replica.max-lag-ms=5000",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "spring.datasource.hikari.connection-timeout=4000",
+        "quiz.datasource.replica.hikari.maximum-pool-size=3"
+})
+class ReplicaRoutingDataSourceTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final long REPLICA_ONLY_QUIZ = 424242L;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private QuizResultService quizResultService;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void seedReplica() {
+        replica.execute("CREATE TABLE IF NOT EXISTS quiz_results (id BIGINT PRIMARY KEY, quiz_id BIGINT, percentage DOUBLE)");
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        replica.update("MERGE INTO quiz_results (id, quiz_id, percentage) KEY (id) VALUES (1, ?, 42.0)", REPLICA_ONLY_QUIZ);
+    }
+
+    @AfterEach
+    void resetReplica() {
+        replica.execute("DROP TABLE IF EXISTS replica_heartbeat");
+        routingDataSource.checkLag();
+    }
+
+    @Test
+    void readOnlyServiceMethodsReadFromAnUpToDateReplica() {
+        beat(System.currentTimeMillis());
+        routingDataSource.checkLag();
+        assertTrue((Boolean) routingDataSource.getReplicaStatus().get("replica-1").get("healthy"));
+
+        // Only the replica has a result for this quiz
+        assertEquals(42.0, quizResultService.getAverageScoreForQuiz(REPLICA_ONLY_QUIZ));
+        // Bare repository calls run in Spring Data's own read-only transaction and stay on the primary
+        assertNull(quizResultRepository.getAverageScoreForQuiz(REPLICA_ONLY_QUIZ));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        beat(System.currentTimeMillis() - 60_000);
+        routingDataSource.checkLag();
+        assertFalse((Boolean) routingDataSource.getReplicaStatus().get("replica-1").get("healthy"));
+
+        // The primary has no result for the quiz
+        assertEquals(0.0, quizResultService.getAverageScoreForQuiz(REPLICA_ONLY_QUIZ));
+    }
+
+    @Test
+    void unreachableHeartbeatTakesTheReplicaOutOfRotation() {
+        replica.execute("DROP TABLE IF EXISTS replica_heartbeat");
+        routingDataSource.checkLag();
+
+        assertEquals(-1L, routingDataSource.getReplicaStatus().get("replica-1").get("lagMillis"));
+        // The primary has no result for the quiz
+        assertEquals(0.0, quizResultService.getAverageScoreForQuiz(REPLICA_ONLY_QUIZ));
+    }
+
+    @Test
+    void poolSettingsReachThePrimaryAndTheReplicas() {
+        List<DataSource> pools = routingDataSource.getPools();
+        HikariDataSource primary = (HikariDataSource) pools.get(0);
+        HikariDataSource replicaPool = (HikariDataSource) pools.get(1);
+
+        assertEquals(7, primary.getMaximumPoolSize());
+        assertEquals(4000, primary.getConnectionTimeout());
+        // Shared settings apply to replicas unless overridden under quiz.datasource.replica.hikari
+        assertEquals(3, replicaPool.getMaximumPoolSize());
+        assertEquals(4000, replicaPool.getConnectionTimeout());
+        assertTrue(replicaPool.isReadOnly());
+    }
+
+    private void beat(long beatAt) {
+        replica.update("MERGE INTO replica_heartbeat (id, beat_at) KEY (id) VALUES (1, ?)", beatAt);
+    }
+}
@@ -0,0 +1,61 @@
+package isil.java_quiz_server.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseCompressionTests {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void responsesOverTheThresholdAreGzipped() throws Exception {
+        HttpResponse<byte[]> plain = get("/quiz-results", "application/json", null);
+        assertTrue(plain.body().length >= 2048, "fixture too small: " + plain.body().length + " bytes");
+
+        HttpResponse<byte[]> large = get("/quiz-results", "application/json", "gzip");
+        assertEquals(Optional.of("gzip"), large.headers().firstValue("Content-Encoding"));
+        assertTrue(large.body().length < plain.body().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.body()))) {
+            assertEquals(new String(plain.body()), new String(in.readAllBytes()));
+        }
+
+        HttpResponse<byte[]> cbor = get("/quiz-results", "application/cbor", "gzip");
+        assertEquals(Optional.of("application/cbor"), cbor.headers().firstValue("Content-Type"));
+        assertEquals(Optional.of("gzip"), cbor.headers().firstValue("Content-Encoding"));
+
+        HttpResponse<byte[]> small = get("/quizzes/summary?limit=1", "application/json", "gzip");
+        assertEquals(200, small.statusCode());
+        assertEquals(Optional.empty(), small.headers().firstValue("Content-Encoding"));
+        assertEquals(Optional.of(String.valueOf(small.body().length)), small.headers().firstValue("Content-Length"));
+
+        // Streamed bodies are written after the filter chain returns and pass straight through
+        HttpResponse<byte[]> export = get("/quizzes/export", "*/*", null);
+        assertEquals(200, export.statusCode());
+        assertTrue(new String(export.body()).lines().allMatch(line -> line.startsWith("{\"id\":")));
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,100 @@
+package isil.java_quiz_server.controller;
+
+import isil.java_quiz_server.config.MetricsFilter;
+import isil.java_quiz_server.config.StatementBudgetExceededException;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.service.MetricsRegistry;
+import isil.java_quiz_server.service.RequestSpan;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasLength;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private MetricsFilter metricsFilter;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Test
+    void scrapeReportsRouteLatenciesRepositoryCallsAndPools() throws Exception {
+        Long id = quizRepository.findCatalog().get(0).getId();
+        mockMvc.perform(get("/quizzes/{id}", id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string(containsString(
+                        "quiz_http_server_requests_seconds_count{method=\"GET\",uri=\"/quizzes/{id}\",status=\"2xx\"}")))
+                .andExpect(content().string(containsString(
+                        "quiz_repository_calls_seconds_count{repository=\"QuizRepository\",method=\"findCatalog\"}")))
+                .andExpect(content().string(containsString("quiz_jdbc_statements_seconds_count")))
+                .andExpect(content().string(containsString("quiz_pool_active{name=")))
+                .andExpect(content().string(containsString("quiz_quiz_cache_hit_rate")));
+    }
+
+    @Test
+    void metricsAreOnlyServedToLoopbackClients() throws Exception {
+        mockMvc.perform(get("/metrics").with(request -> {
+                    request.setRemoteAddr("10.1.2.3");
+                    return request;
+                }))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/metrics/flagged-requests"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requestIdIsEchoedOrGenerated() throws Exception {
+        mockMvc.perform(get("/quizzes").header("X-Request-Id", "exam-42.a"))
+                .andExpect(header().string("X-Request-Id", "exam-42.a"));
+        mockMvc.perform(get("/quizzes").header("X-Request-Id", "bad id\n"))
+                .andExpect(header().string("X-Request-Id", hasLength(32)));
+    }
+
+    @Test
+    void handlersRunningAnNPlusOneFailTheirStatementBudget() {
+        Long id = quizRepository.findCatalog().get(0).getId();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/quizzes");
+
+        StatementBudgetExceededException exceeded = assertThrows(StatementBudgetExceededException.class,
+                () -> metricsFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                    RequestSpan.current().setStatementBudget(2);
+                    // One graph load per quiz instead of the catalog's two queries
+                    for (int i = 0; i < 5; i++) {
+                        quizRepository.findGraphById(id);
+                    }
+                }));
+
+        assertTrue(exceeded.getMessage().startsWith("GET /quizzes ran 10 statements (budget 2); 5x select"),
+                exceeded.getMessage());
+        Map<String, Object> report = metricsRegistry.getFlaggedRequests().get(0);
+        assertEquals("/quizzes", report.get("path"));
+        assertEquals(10, report.get("statementCount"));
+    }
+}
@@ -0,0 +1,401 @@
+package isil.java_quiz_server.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import isil.java_quiz_server.config.BulkheadFilter;
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import isil.java_quiz_server.service.AttemptService;
+import isil.java_quiz_server.service.QuizService;
+import isil.java_quiz_server.service.WireFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QuizControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private BulkheadFilter bulkheadFilter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getQuizByIdAnswersMatchingEtagWithNotModified() throws Exception {
+        Long id = quizRepository.findCatalog().get(0).getId();
+
+        String etag = mockMvc.perform(get("/quizzes/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.questions").isArray())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/quizzes/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void quizzesResultsAndStatisticsAreServedAsCborOrSmileOnRequest() throws Exception {
+        Long id = quizRepository.findCatalog().get(0).getId();
+        ObjectMapper cborMapper = WireFormat.CBOR.mapperFrom(objectMapper);
+        ObjectMapper smileMapper = WireFormat.SMILE.mapperFrom(objectMapper);
+
+        MvcResult json = mockMvc.perform(get("/quizzes/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        MvcResult cbor = mockMvc.perform(get("/quizzes/{id}", id).accept("application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn();
+        byte[] body = cbor.getResponse().getContentAsByteArray();
+        assertEquals(objectMapper.readTree(json.getResponse().getContentAsByteArray()), cborMapper.readTree(body));
+        assertTrue(body.length < json.getResponse().getContentAsByteArray().length);
+        String etag = cbor.getResponse().getHeader("ETag");
+        assertNotEquals(json.getResponse().getHeader("ETag"), etag);
+        mockMvc.perform(get("/quizzes/{id}", id).accept(MediaType.APPLICATION_CBOR).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/quizzes/{id}", id).accept(MediaType.TEXT_HTML))
+                .andExpect(status().isNotAcceptable());
+
+        Long userId = quizResultRepository.findAll().get(0).getUserId();
+        String results = mockMvc.perform(get("/quiz-results/user/{userId}", userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        byte[] smileResults = mockMvc.perform(get("/quiz-results/user/{userId}", userId)
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(objectMapper.readTree(results), smileMapper.readTree(smileResults));
+
+        String statistics = mockMvc.perform(get("/quiz-statistics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        byte[] cborStatistics = mockMvc.perform(get("/quiz-statistics").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(objectMapper.readTree(statistics), cborMapper.readTree(cborStatistics));
+    }
+
+    @Test
+    void submittedAnswersAreGradedOnTheServer() throws Exception {
+        Long id = quizRepository.findCatalog().stream()
+                .filter(quiz -> quiz.getTitle().equals("Basic Mathematics"))
+                .findFirst().orElseThrow().getId();
+
+        mockMvc.perform(post("/quizzes/{id}/submissions", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": 1, \"username\": \"john_doe\", \"answers\": [\"4\", \"6\", \"15\", null, \"9\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.score").value(3))
+                .andExpect(jsonPath("$.totalQuestions").value(5))
+                .andExpect(jsonPath("$.quizTitle").value("Basic Mathematics"));
+    }
+
+    @Test
+    void exportStreamsEveryResultAsNdjsonAndCsv() throws Exception {
+        long total = quizResultRepository.count();
+
+        MvcResult ndjson = mockMvc.perform(get("/quiz-results/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(total, lines.lines().filter(line -> line.startsWith("{\"id\":")).count());
+
+        MvcResult csv = mockMvc.perform(get("/quiz-results/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String rows = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(total + 1, rows.lines().count());
+        assertEquals("id,submissionId,userId,username,quizId,quizTitle,score,totalQuestions,percentage,"
+                + "completedAt,timeTakenSeconds", rows.lines().findFirst().orElseThrow());
+
+        mockMvc.perform(get("/quiz-results/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        // Streamed exports hand their bulkhead permit back once the body is written
+        assertEquals(0, bulkheadFilter.getStatus().get("analytics").get("inUse"));
+    }
+
+    @Test
+    void exportedQuizzesImportAsNewQuizzesWithErrorsReportedPerRecord() throws Exception {
+        long quizzes = quizRepository.count();
+        MvcResult export = mockMvc.perform(get("/quizzes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(quizzes, exported.lines().count());
+
+        String body = exported.lines().findFirst().orElseThrow() + "\n"
+                + "{\"title\": \"No author\", \"questions\": []}\n"
+                + "[\"not\", \"a\", \"quiz\"]\n"
+                + "{\"title\": \"Bad limit\", \"username\": \"teacher\", \"maxAttempts\": \"many\","
+                + " \"questions\": [{\"options\": [\"a\"]}]}\n"
+                + "{\"title\": \"Imported quiz\", \"username\": \"teacher\", \"questions\": [{\"text\": \"2 + 2?\","
+                + " \"options\": [\"3\", \"4\"], \"correctOption\": \"4\"}]}\n";
+        mockMvc.perform(post("/quizzes/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.complete").value(true))
+                .andExpect(jsonPath("$.errors[*].record", contains(2, 3, 4)));
+        assertEquals(quizzes + 2, quizRepository.count());
+
+        Quiz imported = quizRepository.findCatalog().stream()
+                .filter(quiz -> quiz.getTitle().equals("Imported quiz"))
+                .findFirst().orElseThrow();
+        assertEquals(List.of("3", "4"), imported.getQuestions().get(0).getOptions());
+
+        mockMvc.perform(post("/quizzes/import").contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\": \"Cut off\", \"username\": \"teacher\", \"questions\": [{"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.complete").value(false))
+                .andExpect(jsonPath("$.errors[0].record").value(1));
+        mockMvc.perform(post("/quizzes/import").param("format", "xml").content(""))
+                .andExpect(status().isBadRequest());
+        assertEquals(quizzes + 2, quizRepository.count());
+    }
+
+    @Test
+    void resultListingsPageByKeyset() throws Exception {
+        for (String listing : List.of("/quiz-results", "/quiz-results/quiz/1")) {
+            List<Integer> unpaged = JsonPath.read(mockMvc.perform(get(listing))
+                    .andReturn().getResponse().getContentAsString(), "$[*].id");
+            // Pages come in the same order as the unpaged listing
+            assertEquals(unpaged, pageThrough(listing, 3));
+            mockMvc.perform(get(listing).param("limit", "7").param("before", "yesterday"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private List<Integer> pageThrough(String listing, int limit) throws Exception {
+        List<Integer> paged = new ArrayList<>();
+        String before = null;
+        while (true) {
+            MockHttpServletRequestBuilder request = get(listing).param("limit", String.valueOf(limit));
+            if (before != null) {
+                request.param("before", before);
+            }
+            String page = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(lessThanOrEqualTo(limit)))
+                    .andReturn().getResponse().getContentAsString();
+            paged.addAll(JsonPath.read(page, "$.items[*].id"));
+            // Left out of the last page
+            before = JsonPath.using(Configuration.defaultConfiguration().addOptions(Option.DEFAULT_PATH_LEAF_TO_NULL))
+                    .parse(page).read("$.nextBefore");
+            if (before == null) {
+                return paged;
+            }
+        }
+    }
+
+    @Test
+    void submissionsBeyondTheAttemptLimitAreRejected() throws Exception {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Limited quiz");
+        quiz.setUsername("teacher");
+        quiz.setMaxAttempts(2);
+        Question question = new Question();
+        question.setText("What is 1 + 1?");
+        question.setOptions(new ArrayList<>(List.of("1", "2")));
+        question.setCorrectOption("2");
+        quiz.setQuestions(new ArrayList<>(List.of(question)));
+        Long id = quizService.saveQuiz(quiz).getId();
+
+        String first = "{\"userId\": 7700, \"username\": \"limited\", \"answers\": [\"1\"]}";
+        String second = "{\"userId\": 7700, \"username\": \"limited\", \"answers\": [\"2\"]}";
+        mockMvc.perform(post("/quizzes/{id}/submissions", id).contentType(MediaType.APPLICATION_JSON).content(first))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/quiz-results/attempts/{quizId}/{userId}", id, 7700))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attempts").value(1))
+                .andExpect(jsonPath("$.remainingAttempts").value(1));
+        mockMvc.perform(post("/quizzes/{id}/submissions", id).contentType(MediaType.APPLICATION_JSON).content(second))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/quizzes/{id}/submissions", id).contentType(MediaType.APPLICATION_JSON).content(second))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/quiz-results/attempts/{quizId}/{userId}", id, 7700))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attempts").value(2))
+                .andExpect(jsonPath("$.bestScore").value(1))
+                .andExpect(jsonPath("$.maxAttempts").value(2))
+                .andExpect(jsonPath("$.remainingAttempts").value(0))
+                .andExpect(jsonPath("$.limitReached").value(true));
+        mockMvc.perform(get("/quiz-results/attempts/{quizId}/{userId}", 999999, 7700))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void reservedAttemptsCountTowardsTheLimit() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Reserved quiz");
+        quiz.setUsername("teacher");
+        quiz.setMaxAttempts(2);
+        quiz.setQuestions(new ArrayList<>());
+        Long id = quizService.saveQuiz(quiz).getId();
+
+        AttemptService.Reservation first = attemptService.reserve(7702L, id);
+        assertFalse(attemptService.isLimitReached(7702L, id));
+        AttemptService.Reservation second = attemptService.reserve(7702L, id);
+        // Neither result has been saved, yet no attempt is left
+        assertTrue(attemptService.isLimitReached(7702L, id));
+        assertNull(attemptService.reserve(7702L, id));
+
+        second.release();
+        assertFalse(attemptService.isLimitReached(7702L, id));
+        first.release();
+    }
+
+    @Test
+    void concurrentSubmissionsCannotShareTheLastAttempt() throws Exception {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("One attempt quiz");
+        quiz.setUsername("teacher");
+        quiz.setMaxAttempts(1);
+        Question question = new Question();
+        question.setText("What is 1 + 1?");
+        question.setOptions(new ArrayList<>(List.of("1", "2")));
+        question.setCorrectOption("2");
+        quiz.setQuestions(new ArrayList<>(List.of(question)));
+        Long id = quizService.saveQuiz(quiz).getId();
+
+        String answers = "{\"userId\": 7701, \"username\": \"racer\", \"answers\": [\"2\"]}";
+        int submitters = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(submitters);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < submitters; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/quizzes/{id}/submissions", id)
+                                    .contentType(MediaType.APPLICATION_JSON).content(answers))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> codes = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                codes.add(status.get());
+            }
+            assertEquals(1, codes.stream().filter(code -> code == 200).count());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, quizResultRepository.findByUserId(7701L).size());
+    }
+
+    @Test
+    void submissionsTakeTheirIdentityFromTheSessionToken() throws Exception {
+        String login = mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"teacher\", \"password\": \"password123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isString())
+                .andExpect(jsonPath("$.user.username").value("teacher"))
+                .andExpect(jsonPath("$.user.is_teacher").value(true))
+                // Only the token's claims; the rest of the account stays out of the response
+                .andExpect(jsonPath("$.user.password").doesNotExist())
+                .andExpect(jsonPath("$.user.email").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(login, "$.token");
+        Integer teacherId = JsonPath.read(login, "$.user.id");
+        Long quizId = quizRepository.findCatalog().get(0).getId();
+
+        mockMvc.perform(post("/quizzes/{id}/submissions", quizId)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": 1, \"username\": \"someone_else\", \"answers\": []}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(teacherId))
+                .andExpect(jsonPath("$.username").value("teacher"));
+
+        mockMvc.perform(post("/quizzes/{id}/submissions", quizId)
+                        .header("Authorization", "Bearer " + token + "x")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": 1, \"answers\": []}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void repeatedLoginsForOneUsernameAreThrottled() throws Exception {
+        String body = "{\"username\": \"Brute_Forced\", \"password\": \"guess\"}";
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \" brute_forced\", \"password\": \"guess\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+}
@@ -0,0 +1,394 @@
+package isil.java_quiz_server.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import isil.java_quiz_server.config.BulkSeeder;
+import isil.java_quiz_server.config.BulkheadFilter;
+import isil.java_quiz_server.config.RateLimitFilter;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.service.QuizStatisticsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The "whole class submits at once" scenario against the real server on H2: every
+ * simulated student logs in, opens the exam and submits, all released at the same
+ * instant, while a few teachers keep refreshing the statistics dashboard.
+ *
+ * <p>Tagged {@code load} and excluded from the normal build; run it with
+ * {@code mvn -P load-test test}. Sizes come from system properties
+ * ({@code -Dloadtest.clients=300 -Dloadtest.results=50000 ...}, see {@link Settings}).
+ * The JSON report lands in {@code target/load-test} so runs of different versions can be
+ * compared; {@code -Dloadtest.label} names it.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // Every simulated student connects from 127.0.0.1
+        "quiz.ratelimit.login.per-ip=",
+        "quiz.ratelimit.submissions.per-ip=",
+        "logging.level.isil.java_quiz_server=WARN"
+})
+class ExamBurstLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(ExamBurstLoadTest.class);
+    private static final String LOGIN = "login";
+    private static final String GET_QUIZ = "getQuiz";
+    private static final String SUBMIT_RESULT = "submitResult";
+    private static final String QUIZ_STATISTICS = "quizStatistics";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BulkSeeder bulkSeeder;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BulkheadFilter bulkheadFilter;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Settings settings = new Settings();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void examBurst() throws Exception {
+        LoadTestSeeder.Dataset dataset = new LoadTestSeeder(bulkSeeder, quizRepository, quizStatisticsService)
+                .seed(settings.students, settings.quizzes, settings.questionsPerQuiz, settings.results, settings.seed);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        for (String endpoint : List.of(LOGIN, GET_QUIZ, SUBMIT_RESULT, QUIZ_STATISTICS)) {
+            recorders.put(endpoint, new Recorder());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(settings.clients + settings.dashboards);
+        CountDownLatch ready = new CountDownLatch(settings.clients + settings.dashboards);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean examRunning = new AtomicBoolean(true);
+        List<Future<?>> students = new ArrayList<>();
+        List<Future<?>> dashboards = new ArrayList<>();
+        for (int i = 0; i < settings.clients; i++) {
+            LoadTestSeeder.Student student = dataset.students.get(i % dataset.students.size());
+            // Most of the class sits the same exam; the rest are on other quizzes
+            Quiz quiz = dataset.quizzes.get(i % 10 < 8 ? 0 : 1 + i % (dataset.quizzes.size() - 1));
+            students.add(pool.submit(() -> {
+                ready.countDown();
+                start.await();
+                sitExam(student, quiz, recorders);
+                return null;
+            }));
+        }
+        for (int i = 0; i < settings.dashboards; i++) {
+            dashboards.add(pool.submit(() -> {
+                ready.countDown();
+                start.await();
+                while (examRunning.get()) {
+                    call(recorders.get(QUIZ_STATISTICS), get("/quiz-statistics", null));
+                    Thread.sleep(settings.dashboardIntervalMillis);
+                }
+                return null;
+            }));
+        }
+
+        assertTrue(ready.await(30, TimeUnit.SECONDS));
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> student : students) {
+            student.get(10, TimeUnit.MINUTES);
+        }
+        long durationNanos = System.nanoTime() - startedAt;
+        examRunning.set(false);
+        for (Future<?> dashboard : dashboards) {
+            dashboard.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        Map<String, Object> report = report(dataset, recorders, statistics, durationNanos);
+        Path directory = Path.of(settings.reportDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve("exam-burst-" + settings.label + "-" + System.currentTimeMillis() + ".json");
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        logger.info("Load test report written to {}", file.toAbsolutePath());
+
+        for (Recorder recorder : recorders.values()) {
+            assertEquals(0, recorder.serverErrors(), "unexpected 5xx other than load shedding");
+        }
+        assertTrue(recorders.get(SUBMIT_RESULT).count(200) > 0);
+    }
+
+    private void sitExam(LoadTestSeeder.Student student, Quiz quiz, Map<String, Recorder> recorders)
+            throws Exception {
+        HttpResponse<String> login = call(recorders.get(LOGIN), post("/login", null,
+                "{\"username\":\"" + student.username + "\",\"password\":\"" + LoadTestSeeder.PASSWORD + "\"}"));
+        if (login == null || login.statusCode() != 200) {
+            return;
+        }
+        String token = objectMapper.readTree(login.body()).path("token").asText(null);
+        for (int round = 0; round < settings.rounds; round++) {
+            HttpResponse<String> exam = call(recorders.get(GET_QUIZ), get("/quizzes/" + quiz.getId(), token));
+            if (exam == null || exam.statusCode() != 200) {
+                continue;
+            }
+            JsonNode questions = objectMapper.readTree(exam.body()).path("questions");
+            if (settings.thinkMillis > 0) {
+                Thread.sleep(settings.thinkMillis);
+            }
+            int score = Math.min(questions.size(), student.username.hashCode() & 0xf);
+            call(recorders.get(SUBMIT_RESULT), post("/quiz-results", token,
+                    "{\"userId\":" + student.id + ",\"username\":\"" + student.username + "\",\"quizId\":"
+                            + quiz.getId() + ",\"quizTitle\":\"" + quiz.getTitle() + "\",\"score\":" + score
+                            + ",\"totalQuestions\":" + questions.size() + ",\"timeTakenSeconds\":300}"));
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(60)).GET();
+        return authorize(builder, token).build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        return authorize(builder, token).build();
+    }
+
+    private static HttpRequest.Builder authorize(HttpRequest.Builder builder, String token) {
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    /**
+     * Sends the request and records its latency and status; a transport failure counts
+     * as status 0. Like the frontend, retries 429 and 503 after the Retry-After delay,
+     * up to {@code loadtest.max-retries} times, recording every attempt.
+     */
+    private HttpResponse<String> call(Recorder recorder, HttpRequest request) {
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                recorder.record(0, System.nanoTime() - start);
+                return null;
+            }
+            recorder.record(response.statusCode(), System.nanoTime() - start);
+            boolean shed = response.statusCode() == 429 || response.statusCode() == 503;
+            if (!shed || attempt >= settings.maxRetries) {
+                return response;
+            }
+            recorder.retried();
+            long delayMillis = response.headers().firstValueAsLong("Retry-After").orElse(1) * 1000
+                    + ThreadLocalRandom.current().nextLong(500);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return response;
+            }
+        }
+    }
+
+    private Map<String, Object> report(LoadTestSeeder.Dataset dataset, Map<String, Recorder> recorders,
+                                       Statistics statistics, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", "exam-burst");
+        report.put("label", settings.label);
+        report.put("timestamp", Instant.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("settings", settings.asMap());
+
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("rows", dataset.rows);
+        seed.put("durationMs", dataset.durationMillis);
+        seed.put("rowsPerSecond", dataset.durationMillis > 0 ? dataset.rows * 1000 / dataset.durationMillis : null);
+        report.put("seed", seed);
+
+        long requests = recorders.values().stream().mapToLong(Recorder::total).sum();
+        report.put("durationMs", durationNanos / 1_000_000);
+        report.put("requests", requests);
+        report.put("throughputPerSecond", round(requests / seconds));
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.summary(seconds)));
+        report.put("endpoints", endpoints);
+
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("statements", statistics.getPrepareStatementCount());
+        database.put("queries", statistics.getQueryExecutionCount());
+        database.put("entityLoads", statistics.getEntityLoadCount());
+        database.put("entityInserts", statistics.getEntityInsertCount());
+        database.put("transactions", statistics.getTransactionCount());
+        database.put("statementsPerRequest", requests > 0 ? round((double) statistics.getPrepareStatementCount() / requests) : 0);
+        report.put("database", database);
+
+        report.put("bulkheads", bulkheadFilter.getStatus());
+        report.put("rateLimits", rateLimitFilter.getStatus());
+        return report;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Latencies and status codes of one endpoint.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+        private long retries;
+
+        synchronized void record(int status, long latencyNanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        synchronized void retried() {
+            retries++;
+        }
+
+        synchronized long total() {
+            return size;
+        }
+
+        synchronized long count(int status) {
+            return statuses.getOrDefault(status, 0L);
+        }
+
+        synchronized long serverErrors() {
+            // 503 is the bulkheads and the submission buffer shedding load, which is expected
+            return statuses.entrySet().stream()
+                    .filter(e -> (e.getKey() >= 500 && e.getKey() != 503) || e.getKey() == 0)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+
+        synchronized Map<String, Object> summary(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", size);
+            summary.put("throughputPerSecond", round(size / seconds));
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            statuses.forEach((status, count) -> byStatus.put(Integer.toString(status), count));
+            summary.put("statuses", byStatus);
+            summary.put("retries", retries);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", size == 0 ? 0 : round(Arrays.stream(sorted).average().orElse(0) / 1e6));
+            latency.put("p50", percentile(sorted, 0.50));
+            latency.put("p90", percentile(sorted, 0.90));
+            latency.put("p99", percentile(sorted, 0.99));
+            latency.put("max", size == 0 ? 0 : round(sorted[size - 1] / 1e6));
+            summary.put("latencyMs", latency);
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return round(sorted[Math.max(0, index)] / 1e6);
+        }
+    }
+
+    /**
+     * Scenario size, from {@code loadtest.*} system properties.
+     */
+    private static final class Settings {
+        final int clients = Integer.getInteger("loadtest.clients", 300);
+        final int rounds = Integer.getInteger("loadtest.rounds", 3);
+        final int dashboards = Integer.getInteger("loadtest.dashboards", 4);
+        final long dashboardIntervalMillis = Long.getLong("loadtest.dashboard-interval-ms", 250);
+        final long thinkMillis = Long.getLong("loadtest.think-ms", 0);
+        final int maxRetries = Integer.getInteger("loadtest.max-retries", 5);
+        final int students = Integer.getInteger("loadtest.students", 2000);
+        final int quizzes = Math.max(2, Integer.getInteger("loadtest.quizzes", 50));
+        final int questionsPerQuiz = Integer.getInteger("loadtest.questions", 20);
+        final int results = Integer.getInteger("loadtest.results", 50_000);
+        final long seed = Long.getLong("loadtest.seed", 42);
+        final String label = System.getProperty("loadtest.label", "dev");
+        final String reportDir = System.getProperty("loadtest.report-dir", "target/load-test");
+
+        Map<String, Object> asMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("clients", clients);
+            map.put("rounds", rounds);
+            map.put("dashboards", dashboards);
+            map.put("dashboardIntervalMs", dashboardIntervalMillis);
+            map.put("thinkMs", thinkMillis);
+            map.put("maxRetries", maxRetries);
+            map.put("students", students);
+            map.put("quizzes", quizzes);
+            map.put("questionsPerQuiz", questionsPerQuiz);
+            map.put("results", results);
+            map.put("seed", seed);
+            return map;
+        }
+    }
+}
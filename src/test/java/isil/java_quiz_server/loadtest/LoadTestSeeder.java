@@ -0,0 +1,77 @@
+package isil.java_quiz_server.loadtest;
+
+import isil.java_quiz_server.config.BulkSeeder;
+import isil.java_quiz_server.config.DataInitializer;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.service.QuizStatisticsService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fills the database with a school's worth of students, quizzes and past results on top
+ * of {@link DataInitializer}'s sample data, using the same {@link BulkSeeder} as
+ * {@code quiz.seed.mode=bulk}.
+ */
+final class LoadTestSeeder {
+    static final String PASSWORD = "exam-password";
+    private static final String USERNAME_PREFIX = "load_student_";
+
+    private final BulkSeeder bulkSeeder;
+    private final QuizRepository quizRepository;
+    private final QuizStatisticsService quizStatisticsService;
+
+    LoadTestSeeder(BulkSeeder bulkSeeder, QuizRepository quizRepository, QuizStatisticsService quizStatisticsService) {
+        this.bulkSeeder = bulkSeeder;
+        this.quizRepository = quizRepository;
+        this.quizStatisticsService = quizStatisticsService;
+    }
+
+    Dataset seed(int studentCount, int quizCount, int questionsPerQuiz, int resultCount, long seed) {
+        BulkSeeder.Report report = bulkSeeder.seed(new BulkSeeder.Plan(USERNAME_PREFIX, "Load test exam ", "teacher",
+                PASSWORD, studentCount, quizCount, questionsPerQuiz, resultCount, seed, LocalDateTime.now()));
+        quizStatisticsService.rebuild();
+
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++) {
+            students.add(new Student(report.getUserId(i), USERNAME_PREFIX + i));
+        }
+        List<Long> quizIds = new ArrayList<>(quizCount);
+        for (int i = 0; i < quizCount; i++) {
+            quizIds.add(report.getQuizId(i));
+        }
+        Map<Long, Quiz> byId = quizRepository.findAllById(quizIds).stream()
+                .collect(Collectors.toMap(Quiz::getId, Function.identity()));
+        List<Quiz> quizzes = quizIds.stream().map(byId::get).collect(Collectors.toList());
+        return new Dataset(students, quizzes, report.getRows(), report.getMillis());
+    }
+
+    static final class Student {
+        final long id;
+        final String username;
+
+        Student(long id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+    }
+
+    static final class Dataset {
+        final List<Student> students;
+        final List<Quiz> quizzes;
+        final long rows;
+        final long durationMillis;
+
+        Dataset(List<Student> students, List<Quiz> quizzes, long rows, long durationMillis) {
+            this.students = students;
+            this.quizzes = quizzes;
+            this.rows = rows;
+            this.durationMillis = durationMillis;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package isil.java_quiz_server.repository;
+
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.response.QuizSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class QuizRepositoryTests {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void createCatalog() {
+        for (int i = 0; i < 50; i++) {
+            Quiz quiz = new Quiz();
+            quiz.setTitle("Catalog quiz " + i);
+            quiz.setUsername("teacher");
+            List<Question> questions = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                Question question = new Question();
+                question.setText("Question " + j);
+                question.setOptions(new ArrayList<>(Arrays.asList("a", "b", "c", "d")));
+                question.setCorrectOption("a");
+                questions.add(question);
+            }
+            quiz.setQuestions(questions);
+            createdIds.add(quizRepository.save(quiz).getId());
+        }
+    }
+
+    @AfterEach
+    void deleteCatalog() {
+        quizRepository.deleteAllById(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void findCatalogLoadsQuizzesQuestionsAndOptionsInTwoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Quiz> quizzes = quizRepository.findCatalog();
+        int options = 0;
+        for (Quiz quiz : quizzes) {
+            for (Question question : quiz.getQuestions()) {
+                options += question.getOptions().size();
+            }
+        }
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(quizRepository.count(), quizzes.size());
+        long created = quizzes.stream().filter(q -> createdIds.contains(q.getId())).count();
+        assertEquals(50, created);
+        assertTrue(options >= 50 * 4 * 4);
+    }
+
+    @Test
+    void findSummariesAfterSeeksPastTheGivenId() {
+        Long afterId = createdIds.get(9);
+
+        List<QuizSummary> page = quizRepository.findSummariesAfter(afterId, Limit.of(5));
+
+        assertEquals(5, page.size());
+        for (int i = 0; i < 5; i++) {
+            QuizSummary summary = page.get(i);
+            assertEquals(createdIds.get(10 + i), summary.getId());
+            assertEquals("teacher", summary.getUsername());
+            assertEquals(4L, summary.getQuestionCount());
+        }
+    }
+}
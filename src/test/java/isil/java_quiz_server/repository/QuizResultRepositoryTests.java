@@ -0,0 +1,142 @@
+package isil.java_quiz_server.repository;
+
+import isil.java_quiz_server.config.IndexMigrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "isil.java_quiz_server.repository.QuizResultRepositoryTests$RecordingInspector")
+class QuizResultRepositoryTests {
+
+    /** Remembers the SQL Hibernate sends so the test can EXPLAIN exactly that statement. */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IndexMigrator indexMigrator;
+
+    @Test
+    @Transactional
+    void everyResultQueryUsesAnIndex() {
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime until = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        assertPlanUses("idx_quiz_results_user_quiz",
+                () -> quizResultRepository.findByUserId(3L), 3L);
+        assertPlanUses("idx_quiz_results_user_quiz",
+                () -> quizResultRepository.findByUserIdAndQuizId(3L, 1L), 3L, 1L);
+        assertPlanUses("idx_quiz_results_user_quiz",
+                () -> quizResultRepository.summarizeAttempts(3L, 1L), 3L, 1L, 3L, 1L);
+        assertPlanUses("idx_quiz_results_user_quiz",
+                () -> quizResultRepository.findFirstByUserIdAndQuizIdOrderByScoreDescIdAsc(3L, 1L), 3L, 1L, 1);
+        assertPlanUses("idx_quiz_results_quiz_score",
+                () -> quizResultRepository.findByQuizId(1L), 1L);
+        assertPlanUses("idx_quiz_results_quiz_score",
+                () -> quizResultRepository.findByQuizIdOrderByScoreDescIdDesc(1L), 1L);
+        assertPlanUses("idx_quiz_results_quiz_score",
+                () -> quizResultRepository.findBestAttemptPerUser(1L), 1L);
+        assertPlanUses("idx_quiz_results_quiz_score",
+                () -> quizResultRepository.getAverageScoreForQuiz(1L), 1L);
+        assertPlanUses("idx_quiz_results_username",
+                () -> quizResultRepository.findByUsername("john_doe"), "john_doe");
+        assertPlanUses("idx_quiz_results_completed_at",
+                () -> quizResultRepository.getRecentResults(since), since);
+        assertPlanUses("idx_quiz_results_completed_at",
+                () -> quizResultRepository.findByCompletedAtBetween(since, until), since, until);
+        assertPlanUses("idx_quiz_results_completed_at",
+                () -> quizResultRepository.findAllByOrderByCompletedAtDescIdDesc(Limit.of(10)), 0, 10);
+        assertPlanUses("idx_quiz_results_completed_at",
+                () -> quizResultRepository.findByCompletedAtGreaterThanEqualOrderByCompletedAtDescIdDesc(since,
+                        Limit.of(10)), since, 0, 10);
+        assertPlanUses("idx_quiz_results_completed_at",
+                () -> quizResultRepository.findCompletedBefore(until, 50L, Limit.of(10)),
+                until, until, 50L, 0, 10);
+        assertPlanUses("idx_quiz_results_completed_at",
+                () -> quizResultRepository.findCompletedSinceAndBefore(since, until, 50L, Limit.of(10)),
+                since, until, until, 50L, 0, 10);
+        assertPlanUses("idx_quiz_results_user_quiz",
+                () -> quizResultRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(3L, 0L, Limit.of(10)),
+                3L, 0L, 0, 10);
+        assertPlanUses("idx_quiz_results_quiz_score",
+                () -> quizResultRepository.findByQuizIdOrderByScoreDescIdDesc(1L, Limit.of(10)), 1L, 0, 10);
+        assertPlanUses("idx_quiz_results_quiz_score",
+                () -> quizResultRepository.findByQuizIdScoredBelow(1L, 3, 50L, Limit.of(10)),
+                1L, 3, 3, 50L, 0, 10);
+        assertPlanUses("idx_quiz_results_username",
+                () -> quizResultRepository.findByUsernameAndIdGreaterThanOrderByIdAsc("john_doe", 0L, Limit.of(10)),
+                "john_doe", 0L, 0, 10);
+    }
+
+    @Test
+    void missingIndexesAreCreated() {
+        jdbcTemplate.execute("DROP INDEX idx_quiz_results_username");
+        assertEquals(0, countIndex("idx_quiz_results_username"));
+
+        indexMigrator.migrate();
+
+        assertEquals(1, countIndex("idx_quiz_results_username"));
+    }
+
+    private void assertPlanUses(String index, Runnable query, Object... parameters) {
+        RecordingInspector.statements.clear();
+        query.run();
+        String sql = RecordingInspector.statements.get(RecordingInspector.statements.size() - 1);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + bind(sql, parameters), String.class);
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), () -> "Full scan in plan:\n" + plan);
+    }
+
+    /** Inlines the parameters as literals; paged queries also bind an offset and a row limit. */
+    private static String bind(String sql, Object... parameters) {
+        StringBuilder bound = new StringBuilder();
+        int next = 0;
+        for (char c : sql.toCharArray()) {
+            if (c != '?') {
+                bound.append(c);
+                continue;
+            }
+            Object value = parameters[next++];
+            if (value instanceof Number) {
+                bound.append(value);
+            } else if (value instanceof LocalDateTime) {
+                bound.append("TIMESTAMP '").append(value.toString().replace('T', ' ')).append('\'');
+            } else {
+                bound.append('\'').append(value).append('\'');
+            }
+        }
+        assertEquals(parameters.length, next, () -> "Parameter count mismatch for " + sql);
+        return bound.toString();
+    }
+
+    private int countIndex(String name) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.indexes WHERE LOWER(index_name) = ?", Integer.class, name);
+    }
+}
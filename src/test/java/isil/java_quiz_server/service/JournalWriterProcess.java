@@ -0,0 +1,24 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+
+import java.nio.file.Paths;
+
+/**
+ * Child process for {@link SubmissionJournalTests}: appends results forever and
+ * prints each submission id once it is durable, until it gets killed.
+ */
+public class JournalWriterProcess {
+
+    public static void main(String[] args) throws Exception {
+        SubmissionJournal journal = new SubmissionJournal(Paths.get(args[0]), 4096);
+        journal.recover();
+        for (long i = 0; ; i++) {
+            QuizResult result = new QuizResult(i, "student_" + i, 1L, "Crash test", (int) (i % 6), 5);
+            result.setSubmissionId("sub-" + i);
+            journal.awaitDurable(journal.append(result));
+            System.out.println(result.getSubmissionId());
+            System.out.flush();
+        }
+    }
+}
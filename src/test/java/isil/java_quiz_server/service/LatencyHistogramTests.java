@@ -0,0 +1,48 @@
+package isil.java_quiz_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTests {
+
+    @Test
+    void percentilesStayWithinTheBucketPrecision() {
+        Random random = new Random(5);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[20_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform between 1 µs and 10 s
+            values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 7);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long expected = values[(int) Math.ceil(quantile * values.length) - 1];
+            long actual = histogram.percentileNanos(quantile);
+            assertTrue(Math.abs(actual - expected) <= expected * 0.03,
+                    "p" + quantile + " was " + actual + ", expected about " + expected);
+        }
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMaxNanos());
+        assertEquals(Arrays.stream(values).sum(), histogram.getSumNanos());
+    }
+
+    @Test
+    void everyValueMapsToABucketContainingIt() {
+        long[] samples = {0, 1, 63, 64, 65, 127, 128, 1_000, 999_999, 1L << 40, 1L << 42};
+        for (long value : samples) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+            assertTrue(Math.abs(LatencyHistogram.valueOf(index) - value) <= Math.max(1, value * 0.03),
+                    value + " landed in a bucket around " + LatencyHistogram.valueOf(index));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(0, new LatencyHistogram().percentileNanos(0.99));
+    }
+}
@@ -0,0 +1,57 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "quiz.leaderboard.warm-on-startup=false")
+class LeaderboardServiceTests {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    @Test
+    void boardsAreBuiltFromEachUsersBestAttempt() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 9, 0);
+        save(9600L, 2, start);
+        save(9600L, 4, start.plusMinutes(5));
+        save(9600L, 4, start.plusMinutes(9));
+        save(9601L, 4, start.plusMinutes(1));
+        save(9602L, 1, start);
+
+        List<QuizResult> top = leaderboardService.getTop(960L, 10);
+
+        assertEquals(List.of(9601L, 9600L, 9602L), top.stream().map(QuizResult::getUserId).toList());
+        // Ties on score go to the earlier attempt
+        assertEquals(start.plusMinutes(5), top.get(1).getCompletedAt());
+    }
+
+    @Test
+    void quizzesWithoutAttemptsKeepNoBoard() {
+        int before = leaderboardService.getBoardCount();
+        for (long quizId = 970_000L; quizId < 970_100L; quizId++) {
+            assertTrue(leaderboardService.getTop(quizId, 10).isEmpty());
+            assertNull(leaderboardService.getRank(quizId, 1L));
+        }
+
+        assertEquals(before, leaderboardService.getBoardCount());
+    }
+
+    private void save(Long userId, int score, LocalDateTime completedAt) {
+        QuizResult result = new QuizResult(userId, "ranked_" + userId, 960L, "Ranked", score, 5);
+        result.setCompletedAt(completedAt);
+        quizResultRepository.save(result);
+    }
+}
@@ -0,0 +1,66 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardTests {
+
+    @Test
+    void treeMatchesASortedSetUnderRandomOperations() {
+        Random random = new Random(11);
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Integer::compare);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), tree.size());
+        assertEquals(sorted, tree.range(0, tree.size()));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i, tree.rank(sorted.get(i)));
+        }
+        assertEquals(-1, tree.rank(-5));
+    }
+
+    @Test
+    void leaderboardKeepsEachUsersBestAttempt() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.offer(result(1L, 1L, 3, start));
+        leaderboard.offer(result(2L, 2L, 5, start.plusMinutes(5)));
+        leaderboard.offer(result(3L, 3L, 5, start.plusMinutes(1)));
+        leaderboard.offer(result(4L, 1L, 4, start.plusMinutes(9)));
+        leaderboard.offer(result(5L, 4L, 1, start));
+        // A worse retry does not replace the user's best attempt
+        leaderboard.offer(result(6L, 3L, 2, start.plusMinutes(20)));
+
+        assertEquals(4, leaderboard.size());
+        assertEquals(List.of(3L, 2L, 1L), leaderboard.top(3).stream().map(QuizResult::getUserId).toList());
+        assertEquals(2, leaderboard.rankOf(1L));
+        assertEquals(4L, leaderboard.bestOf(1L).getId());
+        assertEquals(List.of(2L, 1L, 4L), leaderboard.around(1L, 3).stream().map(QuizResult::getUserId).toList());
+        assertEquals(List.of(1L, 4L), leaderboard.around(4L, 2).stream().map(QuizResult::getUserId).toList());
+        assertEquals(-1, leaderboard.rankOf(99L));
+    }
+
+    private static QuizResult result(Long id, Long userId, int score, LocalDateTime completedAt) {
+        QuizResult result = new QuizResult(userId, "user" + userId, 1L, "Ranked", score, 5);
+        result.setId(id);
+        result.setCompletedAt(completedAt);
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.User;
+import isil.java_quiz_server.repository.UserRepository;
+import isil.java_quiz_server.requests.LoginRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LoginServiceTests {
+
+    @Autowired
+    private LoginService loginService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Test
+    void plaintextPasswordIsHashedAtNextLogin() {
+        User legacy = new User();
+        legacy.setUsername("legacy_student");
+        legacy.setPassword("secret");
+        userRepository.save(legacy);
+
+        assertTrue(loginService.authenticateUser(login("legacy_student", "secret")).isAuthenticated());
+
+        String stored = userRepository.findByUsername("legacy_student").getPassword();
+        assertNotEquals("secret", stored);
+        assertTrue(passwordHasher.matches("secret", stored));
+        assertFalse(passwordHasher.needsRehash(stored));
+
+        assertTrue(loginService.authenticateUser(login("legacy_student", "secret")).isAuthenticated());
+        assertFalse(loginService.authenticateUser(login("legacy_student", "wrong")).isAuthenticated());
+        assertEquals(stored, userRepository.findByUsername("legacy_student").getPassword());
+    }
+
+    @Test
+    void repeatedLoginsAreServedFromTheVerifiedCache() {
+        User user = new User();
+        user.setUsername("cached_student");
+        user.setPassword("hunter2");
+        userRepository.save(loginService.prepareNewUser(user));
+
+        long hits = loginService.getVerifiedCredentialHits();
+        assertTrue(loginService.authenticateUser(login("cached_student", "hunter2")).isAuthenticated());
+        assertTrue(loginService.authenticateUser(login("cached_student", "hunter2")).isAuthenticated());
+        assertEquals(hits + 1, loginService.getVerifiedCredentialHits());
+
+        // A different password never matches a cached entry
+        assertFalse(loginService.authenticateUser(login("cached_student", "hunter3")).isAuthenticated());
+        assertFalse(loginService.authenticateUser(login("nobody", "hunter2")).isAuthenticated());
+    }
+
+    @Test
+    void hashesFromAnotherCostStillVerifyButAskForRehash() {
+        String cheap = new PasswordHasher(500).hash("pw");
+
+        assertTrue(passwordHasher.matches("pw", cheap));
+        assertTrue(passwordHasher.needsRehash(cheap));
+        assertFalse(passwordHasher.matches("pw", "pw"));
+    }
+
+    private static LoginRequest login(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,65 @@
+package isil.java_quiz_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTests {
+
+    @Test
+    void statementsDifferingOnlyInArgumentsShareAShape() {
+        assertEquals("select * from quizzes q1_0 where q1_0.id=? and q1_0.title=?",
+                RequestSpan.shapeOf("SELECT *\n  FROM quizzes q1_0 WHERE q1_0.id=42 AND q1_0.title='It''s 7'"));
+        assertEquals(RequestSpan.shapeOf("select id from questions where quiz_id in (?, ?, ?)"),
+                RequestSpan.shapeOf("select id from questions where quiz_id in (?)"));
+        assertEquals("update t2 set a = coalesce(?, a)", RequestSpan.shapeOf("update t2 set a = coalesce(?, a)"));
+    }
+
+    @Test
+    void repeatedShapesAndBudgetsFlagTheRequest() {
+        MetricsRegistry registry = new MetricsRegistry(1000, 250, 5);
+        RequestSpan span = RequestSpan.start("trace-1", "GET", "/quizzes", 32);
+        try {
+            span.setStatementBudget(2);
+            registry.recordStatement("select * from quizzes", 1_000);
+            for (int id = 1; id <= 5; id++) {
+                registry.recordStatement("select * from question_options where question_id=" + id, 1_000);
+            }
+        } finally {
+            span.finish();
+        }
+        registry.recordRequest("GET", "/quizzes", 200, 5_000_000, span);
+
+        assertTrue(span.isOverBudget());
+        List<Map<String, Object>> flagged = registry.getFlaggedRequests();
+        assertEquals(1, flagged.size());
+        Map<String, Object> report = flagged.get(0);
+        assertEquals(Set.of(MetricsRegistry.Flag.REPEATED_STATEMENTS, MetricsRegistry.Flag.OVER_BUDGET),
+                report.get("flags"));
+        assertEquals(6, report.get("statementCount"));
+        List<?> repeated = (List<?>) report.get("repeatedStatements");
+        assertEquals(Map.of("sql", "select * from question_options where question_id=?", "count", 5, "ms", 0.01),
+                repeated.get(0));
+        assertTrue(registry.scrape().contains("quiz_http_server_flagged_requests_total{flag=\"over_budget\"} 1"));
+    }
+
+    @Test
+    void unknownHttpMethodsShareOneSeries() {
+        MetricsRegistry registry = new MetricsRegistry(1000, 250, 5);
+        for (int i = 0; i < 100; i++) {
+            registry.recordRequest("MADEUP" + i, "UNMATCHED", 404, 1_000, null);
+        }
+        registry.recordRequest("GET", "UNMATCHED", 404, 1_000, null);
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("method=\"OTHER\""));
+        assertTrue(scrape.contains("method=\"GET\""));
+        assertFalse(scrape.contains("MADEUP"));
+    }
+}
@@ -0,0 +1,187 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.repository.QuizResultRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "quiz.results.write-behind.enabled=true",
+        "quiz.results.write-behind.batch-size=50",
+        "quiz.results.write-behind.flush-interval-ms=20"
+})
+class QuizResultIngestionServiceTests {
+
+    @Autowired
+    private QuizResultIngestionService ingestionService;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void queuedResultsAreFlushedInBatches() throws InterruptedException {
+        long flushedBefore = ingestionService.getFlushedCount();
+        for (int i = 0; i < 120; i++) {
+            assertNotNull(ingestionService.submit(new QuizResult(9000L + i, "burst_" + i, 1L, "Burst", 3, 5)));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ingestionService.getFlushedCount() - flushedBefore < 120 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(120, ingestionService.getFlushedCount() - flushedBefore);
+        assertEquals(0, ingestionService.getPendingCount());
+        assertEquals(120, quizResultRepository.findAll().stream()
+                .filter(result -> "Burst".equals(result.getQuizTitle())).count());
+        assertEquals(60.0, quizResultRepository.findByUserId(9000L).get(0).getPercentage());
+    }
+
+    @Test
+    void flushedResultsReachTheLeaderboardWithTheirIds() throws InterruptedException {
+        List<QuizResult> submitted = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            QuizResult result = new QuizResult(9200L + i, "ranked_" + i, 3L, "Ranked", i % 6, 5);
+            assertNotNull(ingestionService.submit(result));
+            submitted.add(result);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (submitted.stream().anyMatch(result -> leaderboardService.getRank(3L, result.getUserId()) == null)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        for (QuizResult result : submitted) {
+            Long storedId = quizResultRepository.findByUserId(result.getUserId()).get(0).getId();
+            assertEquals(storedId, result.getId());
+            assertEquals(storedId, leaderboardService.getRank(3L, result.getUserId()).getBestResult().getId());
+        }
+    }
+
+    @Test
+    void journaledResultsAreReplayedOnceOnStartup() throws Exception {
+        SubmissionJournal journal = new SubmissionJournal(journalDir, 1 << 20);
+        journal.recover();
+        for (int i = 0; i < 3; i++) {
+            QuizResult result = new QuizResult(9500L, "replayed", 2L, "Replay", i, 5);
+            result.setSubmissionId("replay-" + i);
+            journal.awaitDurable(journal.append(result));
+            if (i == 0) {
+                // Already written before the crash, so replay must skip it
+                quizResultRepository.save(result);
+            }
+        }
+        journal.close();
+
+        QuizResultIngestionService restarted = new QuizResultIngestionService(jdbcTemplate, quizResultRepository,
+                quizStatisticsService, leaderboardService, attemptService, transactionManager, true, 100, 10, 20, true,
+                journalDir.toString(), 1 << 20);
+        restarted.start();
+        restarted.stop();
+
+        assertEquals(3, quizResultRepository.findByUserId(9500L).size());
+        assertEquals(0, new SubmissionJournal(journalDir, 1 << 20).recover().size());
+    }
+
+    @Test
+    void everyResultAcceptedWhileStoppingIsWritten() throws Exception {
+        QuizResultIngestionService stopping = new QuizResultIngestionService(jdbcTemplate, quizResultRepository,
+                quizStatisticsService, leaderboardService, attemptService, transactionManager, true, 100_000, 50, 5, true,
+                journalDir.toString(), 1 << 20);
+        stopping.start();
+        List<String> accepted = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService submitters = Executors.newFixedThreadPool(8);
+        CountDownLatch started = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            long userId = 9300L + t;
+            submitters.submit(() -> {
+                started.countDown();
+                String receipt;
+                while ((receipt = stopping.submit(new QuizResult(userId, "stopping", 4L, "Stopping", 2, 5))) != null) {
+                    accepted.add(receipt);
+                }
+            });
+        }
+        started.await();
+        Thread.sleep(50);
+        stopping.stop();
+        submitters.shutdown();
+        assertTrue(submitters.awaitTermination(10, TimeUnit.SECONDS));
+
+        Set<String> stored = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT submission_id FROM quiz_results WHERE quiz_id = 4", String.class));
+        assertTrue(accepted.size() > 0);
+        assertTrue(stored.containsAll(accepted));
+    }
+
+    @Test
+    void aRowTheDatabaseRefusesIsDeadLetteredWithoutBlockingTheBatch() throws Exception {
+        QuizResultIngestionService ingesting = new QuizResultIngestionService(jdbcTemplate, quizResultRepository,
+                quizStatisticsService, leaderboardService, attemptService, transactionManager, true, 4, 10, 50, true,
+                journalDir.toString(), 1 << 20);
+        ingesting.start();
+        try {
+            for (int i = 0; i < 4; i++) {
+                // quiz_title is a VARCHAR(255)
+                String title = i == 2 ? "T".repeat(300) : "Refused";
+                assertNotNull(ingesting.submit(new QuizResult(9400L + i, "refused_" + i, 5L, title, 3, 5)));
+            }
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (ingesting.getFlushedCount() + ingesting.getDeadLetteredCount() < 4
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(3, ingesting.getFlushedCount());
+            assertEquals(1, ingesting.getDeadLetteredCount());
+            assertEquals(3, quizResultRepository.findByQuizId(5L).size());
+            // The refused row gave its place in the buffer back
+            for (int i = 0; i < 4; i++) {
+                assertNotNull(ingesting.submit(new QuizResult(9410L + i, "after_" + i, 5L, "Refused", 3, 5)));
+            }
+        } finally {
+            ingesting.stop();
+        }
+        assertEquals(7, quizResultRepository.findByQuizId(5L).size());
+        assertEquals(0, new SubmissionJournal(journalDir, 1 << 20).recover().size());
+    }
+}
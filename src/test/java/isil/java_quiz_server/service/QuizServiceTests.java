@@ -0,0 +1,56 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest
+class QuizServiceTests {
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Test
+    void cachedSnapshotIsReplacedAfterSave() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Cached quiz");
+        quiz.setUsername("teacher");
+        Question question = new Question();
+        question.setText("What is 1 + 1?");
+        question.setOptions(new ArrayList<>(Arrays.asList("1", "2")));
+        question.setCorrectOption("2");
+        quiz.setQuestions(new ArrayList<>(List.of(question)));
+        Long id = quizService.saveQuiz(quiz).getId();
+
+        long missesBefore = (Long) quizService.getCacheStatistics().get("misses");
+        CachedQuiz first = quizService.getQuiz(id).orElseThrow();
+        CachedQuiz second = quizService.getQuiz(id).orElseThrow();
+        Map<String, Object> statistics = quizService.getCacheStatistics();
+        assertEquals(first, second);
+        assertEquals(missesBefore + 1, statistics.get("misses"));
+        assertEquals(List.of("1", "2"), first.getSnapshot().getQuestions().get(0).getOptions());
+
+        Quiz stored = quizRepository.findGraphById(id).orElseThrow();
+        stored.setTitle("Renamed quiz");
+        quizService.saveQuiz(stored);
+
+        CachedQuiz renamed = quizService.getQuiz(id).orElseThrow();
+        assertEquals("Renamed quiz", renamed.getSnapshot().getTitle());
+        assertNotEquals(first.getEtag(), renamed.getEtag());
+        quizRepository.deleteById(id);
+    }
+}
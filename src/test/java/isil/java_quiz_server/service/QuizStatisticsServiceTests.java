@@ -0,0 +1,136 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import isil.java_quiz_server.modal.QuizStatistics;
+import isil.java_quiz_server.repository.QuizStatisticsRepository;
+import isil.java_quiz_server.response.ScoreDistribution;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class QuizStatisticsServiceTests {
+
+    @Autowired
+    private QuizResultService quizResultService;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private QuizStatisticsRepository quizStatisticsRepository;
+
+    @Test
+    void savedResultsUpdateAggregatesIncrementallyAndMatchARebuild() throws InterruptedException {
+        // Let the startup rebuild over the seeded results finish first
+        while (quizStatisticsService.isRebuilding()) {
+            Thread.sleep(10);
+        }
+        Long quizId = 7001L;
+        quizResultService.saveQuizResult(new QuizResult(1L, "a", quizId, "Stats", 2, 4));
+        quizResultService.saveQuizResult(new QuizResult(2L, "b", quizId, "Stats", 4, 4));
+        quizResultService.saveQuizResult(new QuizResult(3L, "c", quizId, "Stats", 3, 4));
+
+        QuizStatistics incremental = quizStatisticsRepository.findById(quizId).orElseThrow();
+        assertEquals(3, incremental.getAttempts());
+        assertEquals(75.0, incremental.getAveragePercentage(), 1e-9);
+        assertEquals(Math.sqrt(2 * 25.0 * 25.0 / 3), incremental.getPercentageStandardDeviation(), 1e-9);
+        assertEquals(2, incremental.getMinScore());
+        assertEquals(4, incremental.getMaxScore());
+
+        List<QuizStatistics> before = quizStatisticsRepository.findAll();
+        quizStatisticsService.rebuild();
+        List<QuizStatistics> after = quizStatisticsRepository.findAll();
+
+        assertEquals(before.size(), after.size());
+        for (QuizStatistics rebuilt : after) {
+            QuizStatistics original = before.stream()
+                    .filter(row -> row.getQuizId().equals(rebuilt.getQuizId())).findFirst().orElseThrow();
+            assertEquals(original.getAttempts(), rebuilt.getAttempts());
+            assertEquals(original.getPercentageCount(), rebuilt.getPercentageCount());
+            assertEquals(original.getPercentageSum(), rebuilt.getPercentageSum(), 1e-6);
+            assertEquals(original.getPercentageSquareSum(), rebuilt.getPercentageSquareSum(), 1e-6);
+            assertEquals(original.getMinScore(), rebuilt.getMinScore());
+            assertEquals(original.getMaxScore(), rebuilt.getMaxScore());
+        }
+    }
+
+    @Test
+    void resultsWithoutAPercentageAreLeftOutOfTheAverage() throws InterruptedException {
+        while (quizStatisticsService.isRebuilding()) {
+            Thread.sleep(10);
+        }
+        Long quizId = 7004L;
+        quizResultService.saveQuizResult(new QuizResult(1L, "a", quizId, "Unscored", 2, 4));
+        QuizResult unscored = new QuizResult(2L, "b", quizId, "Unscored", 4, 4);
+        unscored.setPercentage(null);
+        quizResultService.saveQuizResult(unscored);
+
+        QuizStatistics incremental = quizStatisticsRepository.findById(quizId).orElseThrow();
+        assertEquals(2, incremental.getAttempts());
+        assertEquals(50.0, incremental.getAveragePercentage(), 1e-9);
+        assertEquals(0.0, incremental.getPercentageStandardDeviation(), 1e-9);
+
+        quizStatisticsService.rebuild();
+
+        QuizStatistics rebuilt = quizStatisticsRepository.findById(quizId).orElseThrow();
+        assertEquals(2, rebuilt.getAttempts());
+        assertEquals(1L, rebuilt.getPercentageCount());
+        assertEquals(50.0, rebuilt.getAveragePercentage(), 1e-9);
+    }
+
+    @Test
+    void concurrentFirstResultsForAQuizAreAllCounted() throws Exception {
+        Long quizId = 7003L;
+        int submitters = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(submitters);
+        try {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int i = 0; i < submitters; i++) {
+                long userId = i;
+                saves.add(executor.submit(() -> {
+                    start.await();
+                    return quizResultService.saveQuizResult(new QuizResult(userId, "u" + userId, quizId, "Race", 3, 4));
+                }));
+            }
+            start.countDown();
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(submitters, quizStatisticsRepository.findById(quizId).orElseThrow().getAttempts());
+        assertEquals(submitters, quizStatisticsService.getScoreDistribution(quizId, 25).getTotalAttempts());
+    }
+
+    @Test
+    void scoreDistributionReportsQuantilesAndBuckets() {
+        Long quizId = 7002L;
+        int[] scores = {1, 2, 2, 3, 3, 3, 4, 4, 4, 5};
+        for (int i = 0; i < scores.length; i++) {
+            quizResultService.saveQuizResult(new QuizResult((long) i, "u" + i, quizId, "Spread", scores[i], 5));
+        }
+
+        ScoreDistribution distribution = quizStatisticsService.getScoreDistribution(quizId, 25);
+
+        assertEquals(10, distribution.getTotalAttempts());
+        assertEquals(40, distribution.getQuantiles().get("p25"));
+        assertEquals(60, distribution.getQuantiles().get("p50"));
+        assertEquals(80, distribution.getQuantiles().get("p90"));
+        assertEquals(List.of(1L, 2L, 3L, 4L),
+                distribution.getBuckets().stream().map(ScoreDistribution.Bucket::getCount).toList());
+        assertEquals(100, distribution.getBuckets().get(3).getToPercentage());
+    }
+}
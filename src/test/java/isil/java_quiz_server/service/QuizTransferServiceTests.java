@@ -0,0 +1,122 @@
+package isil.java_quiz_server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import isil.java_quiz_server.modal.Question;
+import isil.java_quiz_server.modal.Quiz;
+import isil.java_quiz_server.repository.QuizRepository;
+import isil.java_quiz_server.response.QuizImportReport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class QuizTransferServiceTests {
+
+    @Autowired
+    private QuizTransferService transferService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void smileExportImportsBackAsCopies() throws Exception {
+        long quizzes = quizRepository.count();
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        assertEquals(quizzes, transferService.export(QuizTransferService.Format.SMILE, exported));
+
+        QuizImportReport report = transferService.importQuizzes(QuizTransferService.Format.SMILE,
+                new ByteArrayInputStream(exported.toByteArray()));
+
+        assertEquals(quizzes, report.getRecords());
+        assertEquals(quizzes, report.getImported());
+        assertEquals(2 * quizzes, quizRepository.count());
+    }
+
+    @Test
+    void badSmileRecordsAreSkippedUntilTheStreamIsCutOff() throws Exception {
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(bytes);
+        writeRecord(records, smileMapper.writeValueAsBytes(quiz("Framed quiz")));
+        writeRecord(records, new byte[]{1, 2, 3, 4});
+        // Valid, but longer than the title column, so its chunk is retried one quiz at a time
+        writeRecord(records, smileMapper.writeValueAsBytes(quiz("x".repeat(300))));
+        writeRecord(records, new byte[2 * 1024 * 1024]);
+        writeRecord(records, smileMapper.writeValueAsBytes(quiz("Second framed quiz")));
+        records.writeInt(100);
+        records.write(new byte[10]);
+
+        long quizzes = quizRepository.count();
+        QuizImportReport report = transferService.importQuizzes(QuizTransferService.Format.SMILE,
+                new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(6, report.getRecords());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertFalse(report.isComplete());
+        assertEquals(List.of(2L, 3L, 4L, 6L),
+                report.getErrors().stream().map(QuizImportReport.RecordError::getRecord).toList());
+        assertEquals(quizzes + 2, quizRepository.count());
+    }
+
+    @Test
+    void importKeepsTheRequestPersistenceContextToOneChunk() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            ndjson.append(objectMapper.writeValueAsString(quiz("Bound quiz " + i))).append('\n');
+        }
+        // Bind an EntityManager to the thread as open-in-view does for a request
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            QuizImportReport report = transferService.importQuizzes(QuizTransferService.Format.NDJSON,
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+            assertEquals(500, report.getImported());
+            assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream records, byte[] record) throws Exception {
+        records.writeInt(record.length);
+        records.write(record);
+    }
+
+    private static Quiz quiz(String title) {
+        Quiz quiz = new Quiz();
+        quiz.setId(1L);
+        quiz.setTitle(title);
+        quiz.setUsername("teacher");
+        Question question = new Question();
+        question.setText("What is 1 + 1?");
+        question.setOptions(new ArrayList<>(List.of("1", "2")));
+        question.setCorrectOption("2");
+        quiz.setQuestions(new ArrayList<>(List.of(question)));
+        return quiz;
+    }
+}
@@ -0,0 +1,69 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionTokenServiceTests {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T08:00:00Z");
+
+    @Test
+    void tokenCarriesTheUserClaims() {
+        SessionTokenService tokens = service(NOW, "");
+        SessionPrincipal principal = tokens.verify(tokens.issue(user(42L, "jane|smith", true)));
+
+        assertNotNull(principal);
+        assertEquals(42L, principal.getUserId());
+        assertEquals("jane|smith", principal.getUsername());
+        assertTrue(principal.isTeacher());
+        assertEquals(NOW.plus(Duration.ofHours(1)), principal.getExpiresAt());
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        SessionTokenService tokens = service(NOW, "");
+        String token = tokens.issue(user(42L, "jane", false));
+        String forged = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("1|" + NOW.getEpochSecond() / 7200 + "|1|1|9999999999|jane").getBytes())
+                + token.substring(token.indexOf('.'));
+
+        assertNull(tokens.verify(forged));
+        assertNull(tokens.verify(token.substring(0, token.length() - 2)));
+        assertNull(tokens.verify("not-a-token"));
+        // Keys are random per process without a shared secret
+        assertNull(service(NOW, "").verify(token));
+    }
+
+    @Test
+    void tokensSurviveOneKeyRotationUntilTheyExpire() {
+        String token = service(NOW, "shared").issue(user(7L, "sam", false));
+
+        // Another instance with the same secret accepts it in the next key period
+        Instant nextPeriod = NOW.plus(Duration.ofMinutes(59));
+        assertNotNull(service(nextPeriod, "shared").verify(token));
+        assertNull(service(NOW.plus(Duration.ofHours(1)), "shared").verify(token));
+        assertNull(service(NOW, "other").verify(token));
+    }
+
+    private static SessionTokenService service(Instant now, String secret) {
+        return new SessionTokenService(Clock.fixed(now, ZoneOffset.UTC), Duration.ofHours(1), Duration.ofHours(2), secret);
+    }
+
+    private static User user(Long id, String username, boolean teacher) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setIs_teacher(teacher);
+        return user;
+    }
+}
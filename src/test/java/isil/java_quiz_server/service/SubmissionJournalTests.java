@@ -0,0 +1,212 @@
+package isil.java_quiz_server.service;
+
+import isil.java_quiz_server.modal.QuizResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionJournalTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recoveryKeepsEveryCompleteRecordBeforeATornTail() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            Path dir = tempDir.resolve("torn-" + round);
+            List<String> written = writeRecords(dir, 1 << 20, 30);
+            Path segment = onlySegment(dir);
+            long cut = random.nextInt((int) Files.size(segment));
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+
+            List<String> recovered = recoverIds(dir);
+
+            assertTrue(recovered.size() < written.size());
+            assertEquals(written.subList(0, recovered.size()), recovered);
+            // The torn tail is gone, so a second recovery sees exactly the same records
+            assertEquals(recovered, recoverIds(dir));
+        }
+    }
+
+    @Test
+    void recoveryStopsAtACorruptedRecord() throws IOException {
+        Path dir = tempDir.resolve("corrupt");
+        List<String> written = writeRecords(dir, 1 << 20, 10);
+        Path segment = onlySegment(dir);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        List<String> recovered = recoverIds(dir);
+
+        assertTrue(recovered.size() < written.size());
+        assertEquals(written.subList(0, recovered.size()), recovered);
+    }
+
+    @Test
+    void confirmedSegmentsAreDeletedAfterRotation() throws IOException {
+        Path dir = tempDir.resolve("rotate");
+        SubmissionJournal journal = new SubmissionJournal(dir, 512);
+        journal.recover();
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sequences.add(journal.append(result("sub-" + i)));
+        }
+        journal.awaitDurable(sequences.get(sequences.size() - 1));
+        assertTrue(journal.getSegmentCount() > 1);
+
+        for (Long sequence : sequences) {
+            journal.confirm(sequence);
+        }
+
+        assertEquals(1, journal.getSegmentCount());
+        journal.close();
+        assertEquals(0, segmentCount(dir));
+    }
+
+    @Test
+    void killedWriterLosesNoAcknowledgedSubmission() throws Exception {
+        Random random = new Random(7);
+        for (int round = 0; round < 3; round++) {
+            Path dir = tempDir.resolve("killed-" + round);
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    JournalWriterProcess.class.getName(), dir.toString())
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+
+            List<String> acknowledged = new ArrayList<>();
+            int runMillis = 200 + random.nextInt(1000);
+            long killAt = Long.MAX_VALUE;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+                String line;
+                while (System.currentTimeMillis() < killAt && (line = reader.readLine()) != null) {
+                    // Log output shares stdout with the acknowledgements
+                    if (line.startsWith("sub-")) {
+                        if (acknowledged.isEmpty()) {
+                            killAt = System.currentTimeMillis() + runMillis;
+                        }
+                        acknowledged.add(line);
+                    }
+                }
+                writer.destroyForcibly().waitFor();
+            }
+
+            List<String> recovered = recoverIds(dir);
+
+            assertTrue(acknowledged.size() > 0);
+            assertTrue(recovered.size() >= acknowledged.size());
+            assertEquals(acknowledged, recovered.subList(0, acknowledged.size()));
+        }
+    }
+
+    @Test
+    void recordsAppendedAfterARecoveryWithoutWritesSurviveTheNextCrash() throws IOException {
+        Path dir = tempDir.resolve("recover-twice");
+        // A run that recovers, replays and crashes before writing leaves an empty active segment
+        writeRecords(dir, 1 << 20, 3);
+        SubmissionJournal idle = new SubmissionJournal(dir, 1 << 20);
+        assertEquals(3, idle.recover().size());
+
+        SubmissionJournal journal = new SubmissionJournal(dir, 1 << 20);
+        assertEquals(3, journal.recover().size());
+        journal.discardRecovered();
+        List<String> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            QuizResult result = result("after-" + i);
+            journal.awaitDurable(journal.append(result));
+            acknowledged.add(result.getSubmissionId());
+        }
+
+        // Neither journal is closed, as after a crash
+        assertEquals(acknowledged, recoverIds(dir));
+    }
+
+    @Test
+    void interruptedSyncIsReportedAndLaterAppendsStillWork() throws IOException {
+        Path dir = tempDir.resolve("interrupted");
+        SubmissionJournal journal = new SubmissionJournal(dir, 1 << 20);
+        journal.recover();
+        long first = journal.append(result("sub-0"));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(IOException.class, () -> journal.awaitDurable(first));
+        } finally {
+            Thread.interrupted();
+        }
+
+        journal.awaitDurable(journal.append(result("sub-1")));
+        journal.awaitDurable(first);
+        assertEquals(List.of("sub-0", "sub-1"), recoverIds(dir));
+    }
+
+    private List<String> writeRecords(Path dir, long segmentBytes, int count) throws IOException {
+        SubmissionJournal journal = new SubmissionJournal(dir, segmentBytes);
+        journal.recover();
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            QuizResult result = result("sub-" + i);
+            journal.awaitDurable(journal.append(result));
+            written.add(result.getSubmissionId());
+        }
+        journal.close();
+        return written;
+    }
+
+    private List<String> recoverIds(Path dir) throws IOException {
+        SubmissionJournal journal = new SubmissionJournal(dir, 1 << 20);
+        List<String> ids = new ArrayList<>();
+        for (QuizResult result : journal.recover()) {
+            ids.add(result.getSubmissionId());
+        }
+        journal.close();
+        return ids;
+    }
+
+    private static QuizResult result(String submissionId) {
+        QuizResult result = new QuizResult(1L, "student", 1L, "Journal", 4, 5);
+        result.setSubmissionId(submissionId);
+        return result;
+    }
+
+    private static Path onlySegment(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.filter(path -> Files.isRegularFile(path) && sizeOf(path) > 0).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static long segmentCount(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
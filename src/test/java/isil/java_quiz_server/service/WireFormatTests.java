@@ -0,0 +1,23 @@
+package isil.java_quiz_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WireFormatTests {
+
+    @Test
+    void negotiationFollowsQualityAndSpecificity() {
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(null));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor, application/json"));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/json;q=0.8, application/cbor"));
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate("application/x-jackson-smile, */*;q=0.1"));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/json;q=0, */*"));
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate("*/*;q=0, application/x-jackson-smile"));
+        assertNull(WireFormat.negotiate("text/html"));
+        assertNull(WireFormat.negotiate("application/json;q=0"));
+        assertNull(WireFormat.negotiate("not a media type"));
+    }
+}